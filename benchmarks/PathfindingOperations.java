@@ -0,0 +1,51 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Operations measured by the JMH benchmarks, see pathfinding.PathfindingBenchmark.
+ * JMH does not accept benchmark classes in the default package, and classes in a named package cannot refer to the default package,
+ * so the benchmarks get their operations from here as plain functions, by reflection, once per trial.
+ * Fixtures are generated from a fixed seed, so runs on different machines or commits measure the same maps.
+ */
+public class PathfindingOperations {
+    static final long SEED = 1;
+    static final int FIXTURE_COUNT = 256;
+
+    /**
+     * Makes an operation over fixed maps of a single size
+     * @param name Name of the operation: generateMap, parseLines, getNeighbors, aStar, jumpPointSearch or backtracking
+     * @param mapSize Size of the maps
+     * @param perceptionType Perception type of the captain, only used by the algorithms
+     * @return Operation, which takes the number of the operation, used to pick a fixture, and returns a value depending on the result,
+     * so that the operation cannot be optimized away
+     */
+    public static IntToLongFunction make(String name, int mapSize, int perceptionType) {
+        Map[] maps = MapFactory.GenerateMaps(SEED, mapSize).limit(FIXTURE_COUNT).toArray(Map[]::new);
+        return switch (name) {
+            case "generateMap" -> i -> MapFactory.GenerateMap(MapFactory.mapSeed(SEED, i), mapSize).chestLocation.packed;
+            case "parseLines" -> {
+                List<List<String>> inputLines = new ArrayList<>(maps.length);
+                for (int i = 0; i < maps.length; i++) {
+                    Map map = maps[i];
+                    String coords = map.captainLocation + " " + map.davyLocation + " " + map.krakenLocation + " " + map.rockLocation + " " + map.chestLocation + " " + map.tortugaLocation;
+                    inputLines.add(Arrays.asList(coords, String.valueOf(i % 2 + 1), String.valueOf(mapSize)));
+                }
+                yield i -> InputParser.parseLines(inputLines.get(i % inputLines.size())).chestCoord.packed;
+            }
+            case "getNeighbors" -> i -> {
+                Map map = maps[i % maps.length];
+                return map.getNeighbors(map.cellPoint(i % (map.mapSize * map.mapSize)), true).size();
+            };
+            case "aStar" -> i -> pathLength(new AStarAlgorithm(maps[i % maps.length], perceptionType).getPathBody());
+            case "jumpPointSearch" -> i -> pathLength(new JumpPointSearchAlgorithm(maps[i % maps.length], perceptionType).getPathBody());
+            case "backtracking" -> i -> pathLength(new BacktrackingAlgorithm(maps[i % maps.length], perceptionType).getPathBody());
+            default -> throw new IllegalArgumentException("Unknown operation " + name);
+        };
+    }
+
+    static long pathLength(PathResult path) {
+        return path == null ? -1 : path.path.size();
+    }
+}
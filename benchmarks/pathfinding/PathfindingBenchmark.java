@@ -0,0 +1,131 @@
+package pathfinding;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the pathfinding algorithms and the map building blocks they use, measured both as throughput and as average time per operation.
+ * The operations themselves are made by PathfindingOperations in the default package, next to the classes they measure.
+ * Built and run by the benchmark profile: mvn -P benchmark package, then java -jar target/benchmarks.jar
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class PathfindingBenchmark {
+    /**
+     * Operations of a benchmark, and the number of the next operation, which picks the fixture
+     */
+    public abstract static class Operations {
+        int i = 0;
+
+        int next() {
+            return i++ & Integer.MAX_VALUE;
+        }
+
+        static IntToLongFunction make(String name, int mapSize, int perceptionType) {
+            try {
+                MethodHandle make = MethodHandles.publicLookup().findStatic(Class.forName("PathfindingOperations"), "make",
+                        MethodType.methodType(IntToLongFunction.class, String.class, int.class, int.class));
+                return (IntToLongFunction)make.invokeExact(name, mapSize, perceptionType);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot make operation " + name, e);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MapOperations extends Operations {
+        @Param({"9", "12", "64", "256"})
+        int mapSize;
+        IntToLongFunction generateMap;
+        IntToLongFunction parseLines;
+        IntToLongFunction getNeighbors;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            generateMap = make("generateMap", mapSize, 1);
+            parseLines = make("parseLines", mapSize, 1);
+            getNeighbors = make("getNeighbors", mapSize, 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SolverOperations extends Operations {
+        @Param({"9", "12", "64", "256"})
+        int mapSize;
+        @Param({"1", "2"})
+        int perceptionType;
+        IntToLongFunction aStar;
+        IntToLongFunction jumpPointSearch;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            aStar = make("aStar", mapSize, perceptionType);
+            jumpPointSearch = make("jumpPointSearch", mapSize, perceptionType);
+        }
+    }
+
+    /**
+     * Backtracking is exponential in the map size, so it is only measured on small maps
+     */
+    @State(Scope.Thread)
+    public static class BacktrackingOperations extends Operations {
+        @Param({"9", "12"})
+        int mapSize;
+        @Param({"1", "2"})
+        int perceptionType;
+        IntToLongFunction backtracking;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            backtracking = make("backtracking", mapSize, perceptionType);
+        }
+    }
+
+    @Benchmark
+    public long generateMap(MapOperations operations) {
+        return operations.generateMap.applyAsLong(operations.next());
+    }
+
+    @Benchmark
+    public long parseLines(MapOperations operations) {
+        return operations.parseLines.applyAsLong(operations.next());
+    }
+
+    @Benchmark
+    public long getNeighbors(MapOperations operations) {
+        return operations.getNeighbors.applyAsLong(operations.next());
+    }
+
+    @Benchmark
+    public long aStar(SolverOperations operations) {
+        return operations.aStar.applyAsLong(operations.next());
+    }
+
+    @Benchmark
+    public long jumpPointSearch(SolverOperations operations) {
+        return operations.jumpPointSearch.applyAsLong(operations.next());
+    }
+
+    @Benchmark
+    public long backtracking(BacktrackingOperations operations) {
+        return operations.backtracking.applyAsLong(operations.next());
+    }
+}
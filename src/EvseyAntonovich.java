@@ -1,26 +1,76 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.random.RandomGenerator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 
 /**
- * Class for a coordinate in 2D space
+ * Immutable class for a coordinate in 2D space.
+ * Both coordinates are packed into a single int as signed 16-bit halves, so they must be within [-32768, 32767].
  */
 class Point {
-    int x;
-    int y;
+    final int packed;
     Point(int x, int y) {
-        this.x = x;
-        this.y = y;
+        packed = pack(x, y);
     }
-    Point(Point other) {
-        this.x = other.x;
-        this.y = other.y;
+
+    /**
+     * Packs a coordinate into a single int
+     * @param x Horizontal coordinate
+     * @param y Vertical coordinate
+     * @return Packed coordinate, with y in the upper 16 bits and x in the lower 16 bits
+     */
+    static int pack(int x, int y) {
+        return (y << 16) | (x & 0xFFFF);
+    }
+
+    /**
+     * Gets the horizontal coordinate of a packed coordinate
+     * @param packed Packed coordinate
+     * @return Horizontal coordinate
+     */
+    static int unpackX(int packed) {
+        return (short) packed;
+    }
+
+    /**
+     * Gets the vertical coordinate of a packed coordinate
+     * @param packed Packed coordinate
+     * @return Vertical coordinate
+     */
+    static int unpackY(int packed) {
+        return packed >> 16;
+    }
+
+    int x() {
+        return unpackX(packed);
     }
-    Point() {
-        this(0, 0);
+
+    int y() {
+        return unpackY(packed);
     }
 
     /**
@@ -29,43 +79,58 @@ class Point {
      * @return True if both x and y are equal, false otherwise
      */
     public boolean equals(Point other) {
-        return x == other.x && y == other.y;
+        return packed == other.packed;
     }
 
     /**
      * Sum coordinates with another point
      * @param other Other point
-     * @return New point with summed coordinates
+     * @param map Map whose shared points are returned, see Map.pointAt
+     * @return Point with summed coordinates
      */
-    Point sum(Point other) {
-        return new Point(x + other.x, y + other.y);
+    Point sum(Point other, Map map) {
+        return map.pointAt(x() + other.x(), y() + other.y());
+    }
+
+    /**
+     * Sum coordinates with an offset
+     * @param dx Horizontal offset
+     * @param dy Vertical offset
+     * @param map Map whose shared points are returned, see Map.pointAt
+     * @return Point with summed coordinates
+     */
+    Point sum(int dx, int dy, Map map) {
+        return map.pointAt(x() + dx, y() + dy);
     }
 
     /**
      * Multiply point by an integer coefficient
      * @param coeff Coefficient by how much to multiply the point
-     * @return New point with multiplied coordinates
+     * @param map Map whose shared points are returned, see Map.pointAt
+     * @return Point with multiplied coordinates
      */
-    Point mult(int coeff) {
-        return new Point(x * coeff, y * coeff);
+    Point mult(int coeff, Map map) {
+        return map.pointAt(x() * coeff, y() * coeff);
     }
 
     /**
      * Take difference of this point and another point
      * @param other The other point
-     * @return New point with difference coordinates
+     * @param map Map whose shared points are returned, see Map.pointAt
+     * @return Point with difference coordinates
      */
-    Point diff(Point other) {
-        return sum(other.mult(-1));
+    Point diff(Point other, Map map) {
+        return map.pointAt(x() - other.x(), y() - other.y());
     }
 
     /**
      * Divide point by an integer coefficient
      * @param coeff Integer number by how much to divide the point
-     * @return New point with divided coordinates
+     * @param map Map whose shared points are returned, see Map.pointAt
+     * @return Point with divided coordinates
      */
-    Point div(int coeff) {
-        return new Point(x / coeff, y / coeff);
+    Point div(int coeff, Map map) {
+        return map.pointAt(x() / coeff, y() / coeff);
     }
 
     /**
@@ -76,8 +141,34 @@ class Point {
      * @return Total cost of movement
      */
     int diagonalDistance(Point other, int costNormal, int costDiagonal) {
-        int diffX = Math.abs(x - other.x);
-        int diffY = Math.abs(y - other.y);
+        return diagonalDistance(x(), y(), other.x(), other.y(), costNormal, costDiagonal);
+    }
+
+    /**
+     * Get the diagonal distance cost to another coordinate with specified diagonal and non-diagonal movement costs
+     * @param otherX Horizontal coordinate to which compute the distance
+     * @param otherY Vertical coordinate to which compute the distance
+     * @param costNormal Cost of going non-diagonally
+     * @param costDiagonal Cost of going diagonally
+     * @return Total cost of movement
+     */
+    int diagonalDistance(int otherX, int otherY, int costNormal, int costDiagonal) {
+        return diagonalDistance(x(), y(), otherX, otherY, costNormal, costDiagonal);
+    }
+
+    /**
+     * Get the diagonal distance cost between two coordinates with specified diagonal and non-diagonal movement costs
+     * @param x1 Horizontal coordinate of the first point
+     * @param y1 Vertical coordinate of the first point
+     * @param x2 Horizontal coordinate of the second point
+     * @param y2 Vertical coordinate of the second point
+     * @param costNormal Cost of going non-diagonally
+     * @param costDiagonal Cost of going diagonally
+     * @return Total cost of movement
+     */
+    static int diagonalDistance(int x1, int y1, int x2, int y2, int costNormal, int costDiagonal) {
+        int diffX = Math.abs(x1 - x2);
+        int diffY = Math.abs(y1 - y2);
         return costNormal * (diffX + diffY) + (costDiagonal - 2 * costNormal) * Math.min(diffX, diffY);
     }
 
@@ -88,14 +179,25 @@ class Point {
      * @return Total cost of movement
      */
     int manhattanDistance(Point other, int cost) {
-        int diffX = Math.abs(x - other.x);
-        int diffY = Math.abs(y - other.y);
-        return cost * (diffX + diffY);
+        return manhattanDistance(x(), y(), other.x(), other.y(), cost);
+    }
+
+    /**
+     * Get the manhattan (strictly non-diagonal) distance cost between two coordinates with specified movement cost
+     * @param x1 Horizontal coordinate of the first point
+     * @param y1 Vertical coordinate of the first point
+     * @param x2 Horizontal coordinate of the second point
+     * @param y2 Vertical coordinate of the second point
+     * @param cost Cost of going non-diagonally
+     * @return Total cost of movement
+     */
+    static int manhattanDistance(int x1, int y1, int x2, int y2, int cost) {
+        return cost * (Math.abs(x1 - x2) + Math.abs(y1 - y2));
     }
 
     @Override
     public String toString() {
-        return "[" + y + "," + x + "]";
+        return "[" + y() + "," + x() + "]";
     }
 
     @Override
@@ -103,12 +205,12 @@ class Point {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Point point = (Point) o;
-        return x == point.x && y == point.y;
+        return packed == point.packed;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return packed;
     }
 }
 
@@ -194,7 +296,15 @@ class MapTile {
  */
 class Map {
     static public int defaultSize = 9;
+    static final int maxSize = 32767;  // Largest coordinate a Point can hold is 32767
+    static final int minRandomSize = 5;  // Smallest map on which all the objects can always be randomly placed
+    static final byte DANGER_FLAG = 1;
+    static final byte PERCEPTION_FLAG = 2;
+    static final byte KRAKEN_FLAG = 4;
     public int mapSize;
+    byte[] cellFlags;  // Flags of every cell, indexed y * mapSize + x
+    MapTile[] cellTiles;  // Tiles of every cell, indexed y * mapSize + x, created on first access
+    Point[] cellPoints;  // Shared Point objects for every cell, indexed y * mapSize + x, created on first access
     public List<List<MapTile>> tiles;
     public List<List<Boolean>> dangerZone;
     public List<List<Boolean>> perceptionZone;
@@ -207,7 +317,92 @@ class Map {
     public Point chestLocation;
     public Point tortugaLocation;
 
+    public Long seed = null;  // Seed the map was randomly generated from, null if it was not generated from a seed
+
+    /**
+     * Listener for changes of the flags of map cells, so that searches over the map can be repaired instead of being redone
+     */
+    interface CellChangeListener {
+        /**
+         * Called after the flags of a cell have changed
+         * @param index Cell index
+         */
+        void cellChanged(int index);
+    }
+    List<CellChangeListener> cellChangeListeners = null;  // Created when the first listener is added
+    DistanceOracle distanceOracle = null;  // Created on first use
+    IncrementalPlanner chestPlanner = null;  // Created on first use
+
+    /**
+     * Read-write 2D list view over one flag layer of the map, kept so that code using the list accessors still works
+     */
+    class FlagLayerView extends AbstractList<List<Boolean>> {
+        byte flag;
+        FlagLayerView(byte flag) {
+            this.flag = flag;
+        }
+
+        @Override
+        public List<Boolean> get(int y) {
+            Objects.checkIndex(y, mapSize);
+            return new AbstractList<>() {
+                @Override
+                public Boolean get(int x) {
+                    Objects.checkIndex(x, mapSize);
+                    return cellHasFlag(cellIndex(x, y), flag);
+                }
+
+                @Override
+                public Boolean set(int x, Boolean value) {
+                    Boolean previous = get(x);
+                    setCellFlag(cellIndex(x, y), flag, value);
+                    return previous;
+                }
+
+                @Override
+                public int size() {
+                    return mapSize;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return mapSize;
+        }
+    }
+
+    /**
+     * Read-only 2D list view over the map tiles
+     */
+    class TileLayerView extends AbstractList<List<MapTile>> {
+        @Override
+        public List<MapTile> get(int y) {
+            Objects.checkIndex(y, mapSize);
+            return new AbstractList<>() {
+                @Override
+                public MapTile get(int x) {
+                    Objects.checkIndex(x, mapSize);
+                    return getTileAtCoord(x, y);
+                }
+
+                @Override
+                public int size() {
+                    return mapSize;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return mapSize;
+        }
+    }
+
     public Map(int newSize) {
+        if (newSize < 1 || newSize > maxSize) {
+            throw new IllegalArgumentException("Map size must be between 1 and " + maxSize + ", got " + newSize);
+        }
         mapSize = newSize;
         generateEmptyMap();
     }
@@ -217,31 +412,169 @@ class Map {
     }
 
     /**
-     * Initializes all the 2D lists and generally initializes the map into a workable state.
+     * Initializes all the grid layers and their list views and generally initializes the map into a workable state.
      */
     private void generateEmptyMap() {
-        tiles = new ArrayList<>(mapSize);
-        perceptionZone = new ArrayList<>(mapSize);
-        krakenZone = new ArrayList<>(mapSize);
-        dangerZone = new ArrayList<>(mapSize);
-        for (int i = 0; i < mapSize; i++) {
-            ArrayList<MapTile> curList = new ArrayList<>(mapSize);
-            ArrayList<Boolean> pList = new ArrayList<>(mapSize);
-            ArrayList<Boolean> kList = new ArrayList<>(mapSize);
-            ArrayList<Boolean> dList = new ArrayList<>(mapSize);
-            for (int j = 0; j < mapSize; j++) {
-                curList.add(new MapTile());
-                pList.add(false);
-                kList.add(false);
-                dList.add(false);
+        cellFlags = new byte[mapSize * mapSize];
+        cellTiles = new MapTile[mapSize * mapSize];
+        cellPoints = new Point[mapSize * mapSize];
+        tiles = new TileLayerView();
+        dangerZone = new FlagLayerView(DANGER_FLAG);
+        perceptionZone = new FlagLayerView(PERCEPTION_FLAG);
+        krakenZone = new FlagLayerView(KRAKEN_FLAG);
+    }
+
+    /**
+     * Gets a fingerprint of the map, a hash of its size and the locations of its six objects,
+     * which stays the same for the same map across runs, so that recorded solves of a map can be matched up
+     * @return Fingerprint of the map
+     */
+    long getFingerprint() {
+        long hash = mapSize;
+        for (Point location : new Point[]{captainLocation, davyLocation, krakenLocation, rockLocation, chestLocation, tortugaLocation}) {
+            hash = hash * 0x9E3779B97F4A7C15L + (location == null ? -1 : cellIndex(location.x(), location.y()));
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;  // SplitMix64 finalizer, so that similar maps get unrelated fingerprints
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Gets the index of a cell in the flat grid layers
+     * @param x Horizontal coordinate
+     * @param y Vertical coordinate
+     * @return Cell index
+     */
+    int cellIndex(int x, int y) {
+        return y * mapSize + x;
+    }
+
+    /**
+     * Gets the horizontal coordinate of a cell in the flat grid layers
+     * @param index Cell index
+     * @return Horizontal coordinate
+     */
+    int cellX(int index) {
+        return index % mapSize;
+    }
+
+    /**
+     * Gets the vertical coordinate of a cell in the flat grid layers
+     * @param index Cell index
+     * @return Vertical coordinate
+     */
+    int cellY(int index) {
+        return index / mapSize;
+    }
+
+    /**
+     * Gets the shared Point object of a cell
+     * @param index Cell index
+     * @return Point of the cell
+     */
+    Point cellPoint(int index) {
+        Point point = cellPoints[index];
+        if (point == null) {  // Threads racing here may create two equal points, which is harmless as points are immutable
+            point = new Point(cellX(index), cellY(index));
+            cellPoints[index] = point;
+        }
+        return point;
+    }
+
+    /**
+     * Gets the shared Point object for a coordinate, if it is within bounds
+     * @param x Horizontal coordinate
+     * @param y Vertical coordinate
+     * @return Shared Point of the cell if coordinate is within map bounds, new Point otherwise
+     */
+    Point pointAt(int x, int y) {
+        return coordWithinBounds(x, y) ? cellPoint(cellIndex(x, y)) : new Point(x, y);
+    }
+
+    /**
+     * Checks whether a cell has all the specified flags set
+     * @param index Cell index
+     * @param flag Flag or combination of flags
+     * @return True if all flags are set, false otherwise
+     */
+    boolean cellHasFlag(int index, byte flag) {
+        return (cellFlags[index] & flag) == flag;
+    }
+
+    /**
+     * Sets or clears the specified flags of a cell
+     * @param index Cell index
+     * @param flag Flag or combination of flags
+     * @param value True to set, false to clear
+     */
+    void setCellFlag(int index, byte flag, boolean value) {
+        byte previous = cellFlags[index];
+        if (value) {
+            cellFlags[index] |= flag;
+        } else {
+            cellFlags[index] &= ~flag;
+        }
+        if (cellChangeListeners != null && cellFlags[index] != previous) {
+            for (CellChangeListener listener : cellChangeListeners) {
+                listener.cellChanged(index);
             }
-            tiles.add(curList);
-            perceptionZone.add(pList);
-            krakenZone.add(kList);
-            dangerZone.add(dList);
         }
     }
 
+    /**
+     * Gets the distance oracle of the map, creating it on first use
+     * @return Distance oracle, shared by all the algorithms solving this map
+     */
+    synchronized DistanceOracle getDistanceOracle() {
+        if (distanceOracle == null) {
+            distanceOracle = new DistanceOracle(this);
+        }
+        return distanceOracle;
+    }
+
+    /**
+     * Gets the incremental planner towards the chest with the Kraken dead, creating it on first use.
+     * The planner is not thread-safe, so callers hold its lock while using it.
+     * @return Incremental planner, shared by all the algorithms solving this map
+     */
+    synchronized IncrementalPlanner getChestPlanner() {
+        if (chestPlanner == null) {
+            chestPlanner = new IncrementalPlanner(this, chestLocation, false);
+        }
+        return chestPlanner;
+    }
+
+    /**
+     * Adds a listener which is notified whenever the flags of a cell change
+     * @param listener Listener to add
+     */
+    void addCellChangeListener(CellChangeListener listener) {
+        if (cellChangeListeners == null) {
+            cellChangeListeners = new ArrayList<>();
+        }
+        cellChangeListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addCellChangeListener
+     * @param listener Listener to remove
+     */
+    void removeCellChangeListener(CellChangeListener listener) {
+        if (cellChangeListeners != null) {
+            cellChangeListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Checks whether a cell cannot be moved into
+     * @param index Cell index
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return True if cell is on a perception zone, false otherwise
+     */
+    boolean cellBlocked(int index, boolean krakenPresent) {
+        return (cellFlags[index] & (krakenPresent ? PERCEPTION_FLAG | KRAKEN_FLAG : PERCEPTION_FLAG)) != 0;
+    }
+
     /**
      * Applies a perception zone pattern onto the map at a certain point, switching tiles to true according to the patterns.
      * @param x Center of the pattern horizontally
@@ -256,20 +589,16 @@ class Map {
         int xMax = x + patternXSize / 2 + 1;
         int yMin = y - patternYSize / 2;
         int yMax = y + patternYSize / 2 + 1;
+        byte flags = (byte) (DANGER_FLAG | (kraken ? KRAKEN_FLAG : PERCEPTION_FLAG));
         for (int i = 0; i < yMax - yMin; i++) {
             if (yMin + i < 0 || yMin + i >= mapSize)
                 continue;
+            List<Boolean> patternRow = pattern.get(i);
             for (int j = 0; j < xMax - xMin; j++) {
                 if (xMin + j < 0 || xMin + j >= mapSize)
                     continue;
-                if (pattern.get(i).get(j)) {
-                    if (!kraken) {
-                        dangerZone.get(yMin + i).set(xMin + j, pattern.get(i).get(j));
-                        perceptionZone.get(yMin + i).set(xMin + j, pattern.get(i).get(j));
-                    } else {
-                        dangerZone.get(yMin + i).set(xMin + j, pattern.get(i).get(j));
-                        krakenZone.get(yMin + i).set(xMin + j, pattern.get(i).get(j));
-                    }
+                if (patternRow.get(j)) {
+                    setCellFlag(cellIndex(xMin + j, yMin + i), flags, true);
                 }
             }
         }
@@ -282,7 +611,13 @@ class Map {
      * @return MapTile object
      */
     public MapTile getTileAtCoord(int x, int y) {
-        return tiles.get(y).get(x);
+        int index = cellIndex(x, y);
+        MapTile tile = cellTiles[index];
+        if (tile == null) {
+            tile = new MapTile();
+            cellTiles[index] = tile;
+        }
+        return tile;
     }
 
     /**
@@ -291,7 +626,7 @@ class Map {
      * @return MapTile object
      */
     public MapTile getTileAtCoord(Point coord) {
-        return getTileAtCoord(coord.x, coord.y);
+        return getTileAtCoord(coord.x(), coord.y());
     }
 
     /**
@@ -301,30 +636,22 @@ class Map {
      * @return String representation, including linebreaks
      */
     public String getStringVisualization(boolean overlayPerception, PathResult path) {
-        List<List<Character>> lines = new ArrayList<>(mapSize);
-        for (int i = 0; i < mapSize; i++) {
-            List<Character> curList = new ArrayList<Character>();
-            for (int j = 0; j < mapSize; j++) {
-                curList.add('.');
-            }
-            lines.add(curList);
-        }
+        char[] cells = new char[mapSize * mapSize];
+        Arrays.fill(cells, '.');
         if (overlayPerception) {
-            for (int i = 0; i < mapSize; i++) {
-                for (int j = 0; j < mapSize; j++) {
-                    if (dangerZone.get(i).get(j)) {
-                        lines.get(i).set(j, '!');
-                    }
+            for (int i = 0; i < cells.length; i++) {
+                if (cellHasFlag(i, DANGER_FLAG)) {
+                    cells[i] = '!';
                 }
             }
         }
 
-        lines.get(captainLocation.y).set(captainLocation.x, '@');
-        lines.get(davyLocation.y).set(davyLocation.x, 'D');
-        lines.get(rockLocation.y).set(rockLocation.x, 'R');
-        lines.get(krakenLocation.y).set(krakenLocation.x, 'K');
-        lines.get(chestLocation.y).set(chestLocation.x, '#');
-        lines.get(tortugaLocation.y).set(tortugaLocation.x, '$');
+        cells[cellIndex(captainLocation.x(), captainLocation.y())] = '@';
+        cells[cellIndex(davyLocation.x(), davyLocation.y())] = 'D';
+        cells[cellIndex(rockLocation.x(), rockLocation.y())] = 'R';
+        cells[cellIndex(krakenLocation.x(), krakenLocation.y())] = 'K';
+        cells[cellIndex(chestLocation.x(), chestLocation.y())] = '#';
+        cells[cellIndex(tortugaLocation.x(), tortugaLocation.y())] = '$';
 
         char lastChar = '.';
         if (path != null) {
@@ -332,37 +659,42 @@ class Map {
                 Point curPoint = path.path.get(i);
                 Point prevPoint = path.path.get(i - 1);
                 Point nextPoint = path.path.get(i + 1);
-                int diffX = nextPoint.x - prevPoint.x;
-                int diffY = nextPoint.y - prevPoint.y;
+                int curIndex = cellIndex(curPoint.x(), curPoint.y());
+                int diffX = nextPoint.x() - prevPoint.x();
+                int diffY = nextPoint.y() - prevPoint.y();
                 if (diffX > 0 && diffY > 0 || diffX < 0 && diffY < 0) {
-                    lines.get(curPoint.y).set(curPoint.x, '\\');
+                    cells[curIndex] = '\\';
                 }
                 if (diffX > 0 && diffY < 0 || diffX < 0 && diffY > 0) {
-                    lines.get(curPoint.y).set(curPoint.x, '/');
+                    cells[curIndex] = '/';
                 }
                 if (diffX == 0 && diffY != 0) {
-                    lines.get(curPoint.y).set(curPoint.x, '|');
+                    cells[curIndex] = '|';
                 }
                 if (diffY == 0 && diffX != 0) {
-                    lines.get(curPoint.y).set(curPoint.x, '—');
+                    cells[curIndex] = '—';
                 }
                 if (diffX == 0 && diffY == 0 && lastChar != '.') {
-                    lines.get(curPoint.y).set(curPoint.x, lastChar);
+                    cells[curIndex] = lastChar;
                 }
-                lastChar = lines.get(curPoint.y).get(curPoint.x);
+                lastChar = cells[curIndex];
             }
         }
 
-        StringBuilder outStrBuilder = new StringBuilder();
-        outStrBuilder.append("  ");
+        int cellWidth = String.valueOf(mapSize - 1).length();  // Every column is as wide as the largest coordinate, so that they stay aligned
+        StringBuilder outStrBuilder = new StringBuilder((mapSize + 1) * ((mapSize + 1) * (cellWidth + 1) + 1));
+        appendPadded(outStrBuilder, "", cellWidth).append(" ");
         for (int i = 0; i < mapSize; i++) {
-            outStrBuilder.append(i).append(" ");
+            appendPadded(outStrBuilder, String.valueOf(i), cellWidth).append(" ");
         }
         outStrBuilder.append("\n");
         for (int i = 0; i < mapSize; i++) {
-            outStrBuilder.append(i).append(" ");
+            appendPadded(outStrBuilder, String.valueOf(i), cellWidth).append(" ");
             for (int j = 0; j < mapSize; j++) {
-                outStrBuilder.append(lines.get(i).get(j));
+                for (int k = 1; k < cellWidth; k++) {
+                    outStrBuilder.append(' ');
+                }
+                outStrBuilder.append(cells[cellIndex(j, i)]);
                 outStrBuilder.append(' ');
             }
             outStrBuilder.append('\n');
@@ -371,6 +703,20 @@ class Map {
         return outStrBuilder.toString();
     }
 
+    /**
+     * Appends a string to a builder, padded with spaces on the left to the given width
+     * @param builder Builder to append to
+     * @param str String to append
+     * @param width Minimum width
+     * @return The builder
+     */
+    private static StringBuilder appendPadded(StringBuilder builder, String str, int width) {
+        for (int i = str.length(); i < width; i++) {
+            builder.append(' ');
+        }
+        return builder.append(str);
+    }
+
     /**
      * Gets the neighbors that you can move into from the point origin
      * @param origin Point to find the neighbors of
@@ -378,28 +724,56 @@ class Map {
      * @return List of neighbor points
      */
     List<Point> getNeighbors(Point origin, boolean krakenPresent) {
-        List<Point> neighbors = new ArrayList<>();
-        for (int i = origin.y - 1; i <= origin.y + 1; i++) {
+        int[] neighborCells = new int[8];
+        int neighborCount = getNeighborCells(cellIndex(origin.x(), origin.y()), krakenPresent, neighborCells);
+        List<Point> neighbors = new ArrayList<>(neighborCount);
+        for (int i = 0; i < neighborCount; i++) {
+            neighbors.add(cellPoint(neighborCells[i]));
+        }
+        return neighbors;
+    }
+
+    /**
+     * Writes the indices of the cells that you can move into from the origin cell into a buffer, without allocating anything.
+     * Neighbors are written row by row, top to bottom and left to right, same as the order of getNeighbors.
+     * @param originIndex Index of the cell to find the neighbors of
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @param neighborCells Buffer of at least 8 elements to write the neighbor cell indices into
+     * @return Number of neighbor cells written into the buffer
+     */
+    int getNeighborCells(int originIndex, boolean krakenPresent, int[] neighborCells) {
+        int originX = cellX(originIndex);
+        int originY = cellY(originIndex);
+        int neighborCount = 0;
+        for (int i = originY - 1; i <= originY + 1; i++) {
             if (i < 0 || i >= mapSize) {  // Checking if y is within bounds
                 continue;
             }
-            for (int j = origin.x - 1; j <= origin.x + 1; j++) {
+            for (int j = originX - 1; j <= originX + 1; j++) {
                 if (j < 0 || j >= mapSize) {  // Checking if x is within bounds
                     continue;
                 }
-                if (i == origin.y && j == origin.x) {  // Checking that we are not at the origin, as it is not a neighbour
+                if (i == originY && j == originX) {  // Checking that we are not at the origin, as it is not a neighbour
                     continue;
                 }
-                if (perceptionZone.get(i).get(j) || krakenPresent && krakenZone.get(i).get(j)) {  // Checking that the point is not within a perception zone
+                int neighborIndex = cellIndex(j, i);
+                if (cellBlocked(neighborIndex, krakenPresent)) {  // Checking that the point is not within a perception zone
                     continue;
                 }
-                Point neighbor = new Point();
-                neighbor.x = j;  // Do this instead of using the constructor because we may swap the y and x arguments in the constructor at one point
-                neighbor.y = i;
-                neighbors.add(neighbor);
+                neighborCells[neighborCount++] = neighborIndex;
             }
         }
-        return neighbors;
+        return neighborCount;
+    }
+
+    /**
+     * Checks whether the specified coordinate is within map bounds
+     * @param x Horizontal coordinate
+     * @param y Vertical coordinate
+     * @return True if coordinate is within map bounds, false otherwise
+     */
+    boolean coordWithinBounds(int x, int y) {
+        return x >= 0 && x < mapSize && y >= 0 && y < mapSize;
     }
 
     /**
@@ -408,7 +782,7 @@ class Map {
      * @return True if point is within map bounds, false otherwise
      */
     boolean pointWithinBounds(Point point) {
-        return point.x >= 0 && point.x < mapSize && point.y >= 0 && point.y < mapSize;
+        return coordWithinBounds(point.x(), point.y());
     }
 
     /**
@@ -418,7 +792,16 @@ class Map {
      * @return True if point is on a perception zone, false otherwise
      */
     boolean pointOnPerceptionZone(Point point, boolean krakenPresent) {
-        return perceptionZone.get(point.y).get(point.x) || krakenPresent && krakenZone.get(point.y).get(point.x);
+        return cellBlocked(cellIndex(point.x(), point.y()), krakenPresent);
+    }
+
+    /**
+     * Checks whether the specified point is in a danger zone (any perception zone, including the Kraken's)
+     * @param point Point to check
+     * @return True if point is in a danger zone, false otherwise
+     */
+    boolean pointInDangerZone(Point point) {
+        return cellHasFlag(cellIndex(point.x(), point.y()), DANGER_FLAG);
     }
 }
 
@@ -427,6 +810,7 @@ class Map {
  */
 class MapInput {
     public int scenario;
+    public int mapSize = Map.defaultSize;
     public Point captainCoord;
     public Point davyCoord;
     public Point krakenCoord;
@@ -443,6 +827,10 @@ class MapInput {
         this.chestCoord = chestCoord;
         this.tortugaCoord = tortugaCoord;
     }
+    MapInput(int scenario, int mapSize, Point captainCoord, Point davyCoord, Point krakenCoord, Point rockCoord, Point chestCoord, Point tortugaCoord) {
+        this(scenario, captainCoord, davyCoord, krakenCoord, rockCoord, chestCoord, tortugaCoord);
+        this.mapSize = mapSize;
+    }
 }
 
 /**
@@ -455,18 +843,126 @@ class MapFactory {
      * @return Valid map object if input is valid, random valid map object if input is null, null if input is invalid.
      */
     static public Map GenerateMap(MapInput input) {
-        Random rand = new Random();  // for random generation
-        boolean inputConstructed = input != null;
+        return GenerateMap(input, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Generates a random map from a seed, the same seed always gives the same map.
+     * @param seed Seed of the map
+     * @return Random valid map object, with its seed set
+     */
+    static public Map GenerateMap(long seed) {
+        return GenerateMap(seed, Map.defaultSize);
+    }
+
+    /**
+     * Generates a random map of the given size from a seed, the same seed and size always give the same map.
+     * @param seed Seed of the map
+     * @param mapSize Size of the map
+     * @return Random valid map object, with its seed set
+     */
+    static public Map GenerateMap(long seed, int mapSize) {
+        Map map = GenerateRandomMap(mapSize, new SplittableRandom(seed));
+        map.seed = seed;
+        return map;
+    }
+
+    /**
+     * Gets the seed of a map in a seeded sequence of maps, so that any map of the sequence can be regenerated on its own.
+     * @param seed Seed of the whole sequence
+     * @param index Index of the map in the sequence
+     * @return Seed of the map
+     */
+    static public long mapSeed(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;  // SplitMix64 mixing, so that neighbouring indices give unrelated seeds
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Lazily generates an endless sequence of random maps from a seed, where map i is GenerateMap(mapSeed(seed, i)).
+     * @param seed Seed of the whole sequence
+     * @return Stream of random valid map objects
+     */
+    static public Stream<Map> GenerateMaps(long seed) {
+        return GenerateMaps(seed, Map.defaultSize);
+    }
+
+    /**
+     * Lazily generates an endless sequence of random maps of the given size from a seed, where map i is GenerateMap(mapSeed(seed, i), mapSize).
+     * @param seed Seed of the whole sequence
+     * @param mapSize Size of the maps
+     * @return Stream of random valid map objects
+     */
+    static public Stream<Map> GenerateMaps(long seed, int mapSize) {
+        return LongStream.iterate(0, i -> i + 1).mapToObj(i -> GenerateMap(mapSeed(seed, i), mapSize));
+    }
+
+    /**
+     * Generates a map from input, or a random map if input is null.
+     * @param input Map input. If null, generates random map.
+     * @param rand Random generator to generate the random map with
+     * @return Valid map object if input is valid, random valid map object if input is null, null if input is invalid.
+     */
+    static public Map GenerateMap(MapInput input, RandomGenerator rand) {
+        if (input == null) {
+            return GenerateRandomMap(Map.defaultSize, rand);
+        }
+        return GenerateMap(input, true, rand);
+    }
+
+    /**
+     * Generates a random map of the given size
+     * @param mapSize Size of the map, at least Map.minRandomSize
+     * @param rand Random generator to generate the map with
+     * @return Random valid map object
+     */
+    static public Map GenerateRandomMap(int mapSize, RandomGenerator rand) {
+        if (mapSize < Map.minRandomSize) {
+            throw new IllegalArgumentException("Random maps must be at least " + Map.minRandomSize + " in size, got " + mapSize);
+        }
+        MapInput input = new MapInput();
+        input.mapSize = mapSize;
+        return GenerateMap(input, false, rand);
+    }
+
+    /**
+     * Generates a map from input, randomly placing the objects if the input was not constructed, and records a MapGenerationEvent
+     * @param input Map input, with only the map size set if it was not constructed
+     * @param inputConstructed Whether the object coordinates are given in the input
+     * @param rand Random generator to place the objects with
+     * @return Valid map object if input is valid, null if input is invalid
+     */
+    static private Map GenerateMap(MapInput input, boolean inputConstructed, RandomGenerator rand) {
+        MapGenerationEvent event = new MapGenerationEvent();
+        event.begin();
+        Map map = GenerateMapBody(input, inputConstructed, rand);
+        if (event.shouldCommit()) {
+            event.mapSize = input.mapSize;
+            event.random = !inputConstructed;
+            event.valid = map != null;
+            event.fingerprint = map == null ? 0 : map.getFingerprint();
+            event.commit();
+        }
+        return map;
+    }
+
+    static private Map GenerateMapBody(MapInput input, boolean inputConstructed, RandomGenerator rand) {
+        int size = input.mapSize;
+        if (inputConstructed && !(coordWithinSize(input.captainCoord, size) && coordWithinSize(input.davyCoord, size) && coordWithinSize(input.krakenCoord, size) &&
+                coordWithinSize(input.rockCoord, size) && coordWithinSize(input.chestCoord, size) && coordWithinSize(input.tortugaCoord, size))) {
+            return null;
+        }
         if (!inputConstructed) {  // if no map input given, we make our own
-            input = new MapInput();
-            input.captainCoord = new Point(rand.nextInt(Map.defaultSize), rand.nextInt(Map.defaultSize));
+            input.captainCoord = new Point(rand.nextInt(size), rand.nextInt(size));
         }
-        Map map = new Map();
+        Map map = new Map(size);
         map.getTileAtCoord(input.captainCoord).occupant = new Captain();
         map.captainLocation = input.captainCoord;
 
         while (!inputConstructed && (input.davyCoord == null || map.getTileAtCoord(input.davyCoord).occupant != null)) {
-            input.davyCoord = new Point(rand.nextInt(Map.defaultSize), rand.nextInt(Map.defaultSize));
+            input.davyCoord = new Point(rand.nextInt(size), rand.nextInt(size));
         }
         if (map.getTileAtCoord(input.davyCoord).occupant != null) {
             return null;
@@ -474,10 +970,10 @@ class MapFactory {
         DavyJones davy = new DavyJones();
         map.getTileAtCoord(input.davyCoord).occupant = davy;
         map.davyLocation = input.davyCoord;
-        map.applyPerceptionPattern(input.davyCoord.x, input.davyCoord.y, davy.getPerceptionZone(), false);
+        map.applyPerceptionPattern(input.davyCoord.x(), input.davyCoord.y(), davy.getPerceptionZone(), false);
 
         while (!inputConstructed && (input.krakenCoord == null || map.getTileAtCoord(input.krakenCoord).occupant != null)) {
-            input.krakenCoord = new Point(rand.nextInt(Map.defaultSize), rand.nextInt(Map.defaultSize));
+            input.krakenCoord = new Point(rand.nextInt(size), rand.nextInt(size));
         }
         if (map.getTileAtCoord(input.krakenCoord).occupant != null) {
             return null;
@@ -485,10 +981,10 @@ class MapFactory {
         Kraken kraken = new Kraken();
         map.getTileAtCoord(input.krakenCoord).occupant = kraken;
         map.krakenLocation = input.krakenCoord;
-        map.applyPerceptionPattern(input.krakenCoord.x, input.krakenCoord.y, kraken.getPerceptionZone(), true);
+        map.applyPerceptionPattern(input.krakenCoord.x(), input.krakenCoord.y(), kraken.getPerceptionZone(), true);
 
         while (!inputConstructed && (input.rockCoord == null || map.getTileAtCoord(input.rockCoord).occupant != null && map.getTileAtCoord(input.rockCoord).occupant != kraken)) {
-            input.rockCoord = new Point(rand.nextInt(Map.defaultSize), rand.nextInt(Map.defaultSize));
+            input.rockCoord = new Point(rand.nextInt(size), rand.nextInt(size));
         }
         if (map.getTileAtCoord(input.rockCoord).occupant != null && map.getTileAtCoord(input.rockCoord).occupant != kraken) {
             return null;  // kraken and rock can coexist
@@ -497,22 +993,22 @@ class MapFactory {
         List<List<Boolean>> rockPattern = new ArrayList<>(1);
         rockPattern.add(new ArrayList<>(1));
         rockPattern.get(0).add(true);
-        map.applyPerceptionPattern(input.rockCoord.x, input.rockCoord.y, rockPattern, false);
+        map.applyPerceptionPattern(input.rockCoord.x(), input.rockCoord.y(), rockPattern, false);
 
-        while (!inputConstructed && (input.chestCoord == null || map.dangerZone.get(input.chestCoord.y).get(input.chestCoord.x) || map.getTileAtCoord(input.chestCoord).occupant != null)) {
-            input.chestCoord = new Point(rand.nextInt(Map.defaultSize), rand.nextInt(Map.defaultSize));
+        while (!inputConstructed && (input.chestCoord == null || map.pointInDangerZone(input.chestCoord) || map.getTileAtCoord(input.chestCoord).occupant != null)) {
+            input.chestCoord = new Point(rand.nextInt(size), rand.nextInt(size));
         }
-        if (map.dangerZone.get(input.chestCoord.y).get(input.chestCoord.x) || map.getTileAtCoord(input.chestCoord).occupant != null) {
+        if (map.pointInDangerZone(input.chestCoord) || map.getTileAtCoord(input.chestCoord).occupant != null) {
             return null;  // chest cannot be in danger zone
         }
         Chest chest = new Chest();
         map.getTileAtCoord(input.chestCoord).occupant = chest;
         map.chestLocation = input.chestCoord;
 
-        while (!inputConstructed && (input.tortugaCoord == null || map.dangerZone.get(input.tortugaCoord.y).get(input.tortugaCoord.x) || map.getTileAtCoord(input.tortugaCoord).occupant == chest)) {
-            input.tortugaCoord = new Point(rand.nextInt(Map.defaultSize), rand.nextInt(Map.defaultSize));
+        while (!inputConstructed && (input.tortugaCoord == null || map.pointInDangerZone(input.tortugaCoord) || map.getTileAtCoord(input.tortugaCoord).occupant == chest)) {
+            input.tortugaCoord = new Point(rand.nextInt(size), rand.nextInt(size));
         }
-        if (map.dangerZone.get(input.tortugaCoord.y).get(input.tortugaCoord.x) || map.getTileAtCoord(input.tortugaCoord).occupant == chest) {
+        if (map.pointInDangerZone(input.tortugaCoord) || map.getTileAtCoord(input.tortugaCoord).occupant == chest) {
             return null;  // tortuga cannot be in danger zone
         }
         Tortuga tortuga = new Tortuga();
@@ -521,6 +1017,10 @@ class MapFactory {
 
         return map;
     }
+
+    static private boolean coordWithinSize(Point coord, int size) {
+        return coord != null && coord.x() >= 0 && coord.x() < size && coord.y() >= 0 && coord.y() < size;
+    }
 }
 
 /**
@@ -528,28 +1028,84 @@ class MapFactory {
  */
 class InputParser {
     /**
-     * Parses a single coordinate string of format [x,y]
+     * Parses a single coordinate string of format [y,x], where both coordinates are non-negative integers smaller than the map size
      * @param input Coordinate string
+     * @param mapSize Size of the map
      * @return Coordinate in string, null if coordinate string is invalid
      */
-    static private Point parseCoord(String input) {
-        Point outPoint = new Point();
-        if (input.length() != 5 || input.charAt(0) != '[' || input.charAt(2) != ',' || input.charAt(4) != ']' ||
-                !Character.isDigit(input.charAt(1)) || !Character.isDigit(input.charAt(3)) ||
-                input.charAt(1) == '9' || input.charAt(3) == '9') {
+    static private Point parseCoord(String input, int mapSize) {
+        int length = input.length();
+        if (length < 5 || input.charAt(0) != '[' || input.charAt(length - 1) != ']') {
+            return null;
+        }
+        int comma = input.indexOf(',');
+        if (comma == -1) {
             return null;
         }
-        outPoint.y = Character.digit(input.charAt(1), 10);
-        outPoint.x = Character.digit(input.charAt(3), 10);
-        return outPoint;
+        int y = parseNumber(input, 1, comma, mapSize);
+        int x = parseNumber(input, comma + 1, length - 1, mapSize);
+        if (x == -1 || y == -1) {
+            return null;
+        }
+        return new Point(x, y);
     }
 
     /**
-     * Parses lines of input.txt, with first line having coordinates of all the objects and second line having the scenario number
+     * Parses a non-negative integer from a part of a string
+     * @param input String to parse from
+     * @param from Index of the first digit
+     * @param to Index after the last digit
+     * @param limit Number must be smaller than this
+     * @return Parsed number, -1 if there are no digits, a non-digit character, or the number is not smaller than the limit
+     */
+    static private int parseNumber(String input, int from, int to, int limit) {
+        if (from >= to) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+            if (number >= limit) {  // Also keeps the number from overflowing
+                return -1;
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Parses lines of input.txt, with first line having coordinates of all the objects and second line having the scenario number.
+     * An optional third line has the map size, otherwise the map is of the default size.
      * @param lines List of 2 or more Strings
      * @return MapInput object
      */
     static public MapInput parseLines(List<String> lines) {
+        if (lines == null) {
+            return null;
+        }
+        if (lines.size() < 2) {
+            return null;
+        }
+        int mapSize = Map.defaultSize;
+        if (lines.size() >= 3 && !lines.get(2).isEmpty()) {
+            mapSize = parseNumber(lines.get(2), 0, lines.get(2).length(), Map.maxSize + 1);
+            if (mapSize < 1) {
+                return null;
+            }
+        }
+        return parseLines(lines, mapSize);
+    }
+
+    /**
+     * Parses lines of input.txt, with first line having coordinates of all the objects and second line having the scenario number
+     * @param lines List of 2 or more Strings
+     * @param mapSize Size of the map, all coordinates must be smaller than it
+     * @return MapInput object
+     */
+    static public MapInput parseLines(List<String> lines, int mapSize) {
         if (lines == null) {
             return null;
         }
@@ -568,13 +1124,13 @@ class InputParser {
         }
         Point[] positions = new Point[6];
         for (int i = 0; i < 6; i++) {
-            Point curPoint = parseCoord(coordStrings[i]);
+            Point curPoint = parseCoord(coordStrings[i], mapSize);
             if (curPoint == null) {
                 return null;
             }
             positions[i] = curPoint;
         }
-        return new MapInput(scenario, positions[0], positions[1], positions[2], positions[3], positions[4], positions[5]);
+        return new MapInput(scenario, mapSize, positions[0], positions[1], positions[2], positions[3], positions[4], positions[5]);
     }
 }
 
@@ -611,16 +1167,236 @@ class FileLinesReader {
 }
 
 /**
- * Container class for the algorithm output, which is the algorithm runtime and the path from start to finish
+ * Reader of a file with many map inputs, which memory-maps the file and parses the inputs straight from its bytes, without making any Strings.
+ * Scenarios follow each other in the format of input.txt: a line with the coordinates of all the objects, which starts with '[',
+ * a line with the scenario number, and an optional line with the map size. Empty lines between scenarios are skipped.
+ * A scenario is a line together with all the non-empty lines after it that do not start with '[', so a malformed scenario,
+ * with lines missing or extra lines, is read as one invalid scenario and the next one is still read from its own first line.
+ * The file is mapped in windows, so that files larger than 2 GB can be read, and a new window is mapped from the start of a scenario
+ * whenever the scenario runs past the end of the current one.
  */
-class AlgorithmOutput {
-    Map map;
-    double millisecondRuntime;
-    PathResult path;
-    AlgorithmOutput(double millisecondRuntime, PathResult path, Map map) {
-        this.millisecondRuntime = millisecondRuntime;
-        this.path = path;
-        this.map = map;
+class BatchInputReader implements Closeable {
+    static final int WINDOW_BYTES = 64 << 20;
+    FileChannel channel;
+    long fileSize;
+    int windowBytes;  // Size of the windows, only the last window of the file is smaller
+    long windowStart;  // Position of the window in the file
+    MappedByteBuffer window;
+    int position;  // Position of the next byte to read in the window
+    int[] lineStarts = new int[3];  // Lines of the scenario being parsed, as positions in the window
+    int[] lineEnds = new int[3];
+    Point[] coords = new Point[6];  // Buffer for the coordinates of the scenario being parsed
+
+    /**
+     * @param filename Name of the file to read
+     * @param windowBytes Size of the mapped windows, which limits the size of a scenario
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    BatchInputReader(String filename, int windowBytes) throws IOException {
+        channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ);
+        fileSize = channel.size();
+        this.windowBytes = windowBytes;
+        mapWindow(0);
+    }
+    BatchInputReader(String filename) throws IOException {
+        this(filename, WINDOW_BYTES);
+    }
+
+    private void mapWindow(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, fileSize - start));
+        position = 0;
+    }
+
+    private boolean windowReachesEnd() {
+        return windowStart + window.limit() >= fileSize;
+    }
+
+    /**
+     * Skips the empty lines before the next scenario
+     * @return True if there is another scenario
+     * @throws IOException If the next window cannot be mapped
+     */
+    boolean hasNext() throws IOException {
+        while (true) {
+            while (position < window.limit() && isLineBreak(window.get(position))) {
+                position++;
+            }
+            if (position < window.limit() || windowReachesEnd()) {
+                return position < window.limit();
+            }
+            mapWindow(windowStart + position);
+        }
+    }
+
+    /**
+     * Reads the next scenario, call hasNext first
+     * @return MapInput object, null if the scenario is invalid
+     * @throws IOException If the next window cannot be mapped, or the scenario does not fit into a window
+     */
+    MapInput next() throws IOException {
+        int lineCount = findScenarioLines();
+        while (lineCount == -1) {
+            if (position == 0 && window.limit() == windowBytes) {
+                throw new IOException("Scenario at byte " + windowStart + " does not fit into a window of " + windowBytes + " bytes");
+            }
+            mapWindow(windowStart + position);
+            lineCount = findScenarioLines();
+        }
+        if (lineCount < 2 || lineCount > 3) {
+            return null;
+        }
+        int mapSize = Map.defaultSize;
+        if (lineCount == 3) {
+            mapSize = parseNumber(lineStarts[2], lineEnds[2], Map.maxSize + 1);
+            if (mapSize < 1) {
+                return null;
+            }
+        }
+        if (lineEnds[1] - lineStarts[1] != 1 || window.get(lineStarts[1]) != '1' && window.get(lineStarts[1]) != '2') {
+            return null;
+        }
+        int scenario = window.get(lineStarts[1]) - '0';
+        // Coordinates are separated by single spaces, trailing spaces are ignored, just like when splitting the line
+        int end = lineEnds[0];
+        while (end > lineStarts[0] && window.get(end - 1) == ' ') {
+            end--;
+        }
+        int tokenStart = lineStarts[0];
+        for (int i = 0; i < 6; i++) {
+            int tokenEnd = tokenStart;
+            while (tokenEnd < end && window.get(tokenEnd) != ' ') {
+                tokenEnd++;
+            }
+            if (i < 5 ? tokenEnd == end : tokenEnd != end) {
+                return null;  // Fewer or more than six coordinates
+            }
+            coords[i] = parseCoord(tokenStart, tokenEnd, mapSize);
+            if (coords[i] == null) {
+                return null;
+            }
+            tokenStart = tokenEnd + 1;
+        }
+        return new MapInput(scenario, mapSize, coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]);
+    }
+
+    /**
+     * Finds the lines of the scenario starting at the current position, and moves past them if the whole scenario is in the window.
+     * The scenario ends before an empty line, before a line starting with '[', or at the end of the file.
+     * @return Number of lines of the scenario, of which the first three are put into lineStarts and lineEnds,
+     *         -1 if the scenario runs past the end of the window, in which case the position is not moved
+     */
+    private int findScenarioLines() {
+        int limit = window.limit();
+        int cur = position;
+        int lineCount = 0;
+        while (true) {
+            int start = cur;
+            while (cur < limit && window.get(cur) != '\n') {
+                cur++;
+            }
+            if (cur == limit && !windowReachesEnd()) {
+                return -1;  // The line break may be in the next window
+            }
+            int end = cur;
+            if (end > start && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (lineCount < lineStarts.length) {
+                lineStarts[lineCount] = start;
+                lineEnds[lineCount] = end;
+            }
+            lineCount++;
+            if (cur < limit) {
+                cur++;  // Past the line break
+            }
+            if (cur == limit && !windowReachesEnd()) {
+                return -1;  // The next line may still belong to the scenario
+            }
+            if (cur == limit || isLineBreak(window.get(cur)) || window.get(cur) == '[') {
+                position = cur;
+                return lineCount;
+            }
+        }
+    }
+
+    /**
+     * Parses a coordinate of format [y,x] from the window, where both coordinates are non-negative integers smaller than the map size
+     * @param from Position of the opening bracket
+     * @param to Position after the closing bracket
+     * @param mapSize Size of the map
+     * @return Coordinate, null if it is invalid
+     */
+    private Point parseCoord(int from, int to, int mapSize) {
+        if (to - from < 5 || window.get(from) != '[' || window.get(to - 1) != ']') {
+            return null;
+        }
+        int comma = from + 1;
+        while (comma < to && window.get(comma) != ',') {
+            comma++;
+        }
+        if (comma == to) {
+            return null;
+        }
+        int y = parseNumber(from + 1, comma, mapSize);
+        int x = parseNumber(comma + 1, to - 1, mapSize);
+        if (x == -1 || y == -1) {
+            return null;
+        }
+        return new Point(x, y);
+    }
+
+    /**
+     * Parses a non-negative integer from the window
+     * @param from Position of the first digit
+     * @param to Position after the last digit
+     * @param limit Number must be smaller than this
+     * @return Parsed number, -1 if there are no digits, a non-digit byte, or the number is not smaller than the limit
+     */
+    private int parseNumber(int from, int to, int limit) {
+        if (from >= to) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = from; i < to; i++) {
+            byte b = window.get(i);
+            if (!isDigit(b)) {
+                return -1;
+            }
+            number = number * 10 + (b - '0');
+            if (number >= limit) {  // Also keeps the number from overflowing
+                return -1;
+            }
+        }
+        return number;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
+
+/**
+ * Container class for the algorithm output, which is the algorithm runtime and the path from start to finish
+ */
+class AlgorithmOutput {
+    Map map;
+    double millisecondRuntime;
+    PathResult path;
+    SearchCounters counters;  // Search effort of the run, null if it was not counted
+    AlgorithmOutput(double millisecondRuntime, PathResult path, Map map) {
+        this.millisecondRuntime = millisecondRuntime;
+        this.path = path;
+        this.map = map;
     }
     AlgorithmOutput(double millisecondRuntime, PathResult path) {
         this(millisecondRuntime, path, null);
@@ -650,439 +1426,2946 @@ class PathResult {
 }
 
 /**
- * Base class for pathfinding algorithms
+ * Distance oracle of a map, which answers distance and path queries towards points of interest with table lookups.
+ * For each target and Kraken state it is asked about, it builds a breadth-first distance tree over the whole map once and caches it,
+ * so that queries from any start only follow the tree, moving to a neighbor one move closer to the target each time.
+ * The parent of a cell is implied by the distances, so only the distances are stored.
+ * The trees are dropped whenever a cell of the map changes.
  */
-abstract class Algorithm {
+class DistanceOracle implements Map.CellChangeListener {
+    static final int UNREACHABLE = -1;
+
     Map map;
-    public int perceptionType;
-    long timeStart;
-    Algorithm(Map map, int perceptionType) {
-        this.map = map;
-        this.perceptionType = perceptionType;
-    }
+    HashMap<Long, int[]> trees = new HashMap<>();  // Distance trees by target cell and Kraken state
 
     /**
-     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest and the running time of the algorithm
-     * @return Algorithm Output with timing and path
+     * Use Map.getDistanceOracle, which creates the oracle once and caches it
+     * @param map Map to answer queries on
      */
-    public AlgorithmOutput getPath() {
-        AlgorithmOutput output = new AlgorithmOutput();
-        timeStart = System.nanoTime();
-        output.path = getPathBody();
-        output.millisecondRuntime = (double)(System.nanoTime() - timeStart) / 1000000;
-        output.map = map;
-        return output;
+    DistanceOracle(Map map) {
+        this.map = map;
+        map.addCellChangeListener(this);
+    }
+
+    @Override
+    public synchronized void cellChanged(int index) {
+        trees.clear();
     }
 
     /**
-     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest
-     * @return PathResult that contains the list of points that are part of the path
+     * Gets the number of moves from every cell to a target, building the distance tree if it is not cached yet
+     * @param target Target point
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return Distance of each cell to the target, UNREACHABLE for cells from which the target cannot be reached, must not be modified
      */
-    abstract protected PathResult getPathBody();
-}
+    synchronized int[] getTree(Point target, boolean krakenPresent) {
+        int targetCell = map.cellIndex(target.x(), target.y());
+        return trees.computeIfAbsent((long)targetCell << 1 | (krakenPresent ? 1 : 0), key -> buildTree(targetCell, krakenPresent));
+    }
 
-/**
- * Class for the A* algorithm
- */
-class AStarAlgorithm extends Algorithm {
     /**
-     * Class for a single A* grid tile
+     * Computes the number of moves from every cell to the target cell with a breadth-first search from the target.
+     * Moves are symmetric, so the distance from the target to a cell is the same as from the cell to the target.
+     * A blocked target cannot be moved into, so it can only be reached from itself.
+     * @param targetCell Cell index of the target
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return Distance of each cell to the target, UNREACHABLE for cells from which the target cannot be reached
      */
-    class AStarTile {
-        int g = -1;
-        int h = -1;
-        int f = -1;
-        Point location = null;
-        AStarTile parent = null;
-        AStarTile(Point location) {
-            this.location = location;
+    int[] buildTree(int targetCell, boolean krakenPresent) {
+        int[] distance = new int[map.mapSize * map.mapSize];
+        Arrays.fill(distance, UNREACHABLE);
+        int[] queue = new int[distance.length];
+        int[] cellNeighbors = new int[8];
+        int head = 0;
+        int tail = 0;
+        distance[targetCell] = 0;
+        if (map.cellBlocked(targetCell, krakenPresent)) {
+            return distance;
         }
-        AStarTile() {}
-
-        /**
-         * Updates the costs of an A* tile
-         * @param neighbor The neighbor from which the cost is being updated
-         * @param cost Cost of movement to this tile
-         * @param target Goal point for computing h cost
-         */
-        public void updateCosts(AStarTile neighbor, int cost, Point target) {
-            h = location.diagonalDistance(target, 1, 1);
-            if (neighbor != null) {
-                if (g == -1 || neighbor.g + cost < g) {
-                    g = neighbor.g + cost;
-                    parent = neighbor;
+        queue[tail++] = targetCell;
+        while (head < tail) {
+            int cell = queue[head++];
+            int neighborCount = map.getNeighborCells(cell, krakenPresent, cellNeighbors);
+            for (int i = 0; i < neighborCount; i++) {
+                int neighborCell = cellNeighbors[i];
+                if (distance[neighborCell] == UNREACHABLE) {
+                    distance[neighborCell] = distance[cell] + 1;
+                    queue[tail++] = neighborCell;
                 }
-            } else {
-                g = 0;
             }
-            f = g + h;
         }
-    }
-    AStarAlgorithm(Map map, int perceptionType) {
-        super(map, perceptionType);
+        return distance;
     }
 
-    boolean krakenDiscovered = false;
+    /**
+     * Gets the number of moves on the shortest path between two points
+     * @param start Starting point
+     * @param end Goal/end point
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return Number of moves, UNREACHABLE if the end cannot be reached
+     */
+    int getDistance(Point start, Point end, boolean krakenPresent) {
+        int cell = map.cellIndex(start.x(), start.y());
+        int[] tree = getTree(end, krakenPresent);
+        int next = getFirstMove(tree, cell, krakenPresent);
+        return next == -1 ? tree[cell] : tree[next] + 1;
+    }
 
     /**
-     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest using A*.
-     * First, it gets the shortest path from Jack Sparrow to the chest, without making a detour to Tortuga Island.
-     * Then, it calculates a path to Tortuga Island, if the Kraken has been discovered during the first path.
-     * Afterwards, it calculates four paths - from Tortuga to each of the corners near the Kraken.
-     * Afterwards, for each of the valid paths generated to the corners, it generates another path - from that corner to the chest.
-     * Afterwards, it concatenates all the intermediate paths, if they are valid (not null), and gets the minimum path.
-     * If this minimum path is shorter than the standard non-Tortuga path, or if there is NO non-Tortuga path, it instead returns the Tortuga path.
-     * Otherwise, it returns the standard non-Tortuga path, or no path at all, if the goal is completely unreachable.
-     * @return PathResult that contains the list of points that are part of the path
+     * Gets the first move from a start cell which is not in the distance tree, as it is blocked, but can still be moved out of
+     * @param tree Distance tree
+     * @param cell Cell index of the start
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return Neighbor closest to the target, -1 if the start is in the tree, or if none of its neighbors are
      */
-    @Override
-    protected PathResult getPathBody() {
-        PathResult shortestPath = getPathBetweenPoints(map.captainLocation, map.chestLocation, 0, true);
-        if (krakenDiscovered) {
-            PathResult toTortuga = getPathBetweenPoints(map.captainLocation, map.tortugaLocation, 0, true);
-            if (toTortuga == null) {
-                return shortestPath;
-            }
-            toTortuga.path.remove(toTortuga.path.size() - 1);
-            List<Point> krakenPoints = Arrays.asList(
-                    map.krakenLocation.sum(new Point(-1, -1)),
-                    map.krakenLocation.sum(new Point(1, -1)),
-                    map.krakenLocation.sum(new Point(1, 1)),
-                    map.krakenLocation.sum(new Point(-1, 1)));
-            List<PathResult> toKrakenPaths = new ArrayList<>(4);
-            for (int i = 0; i < 4; i++) {
-                Point curKrakenPoint = krakenPoints.get(i);
-                if (map.pointWithinBounds(curKrakenPoint) && !map.pointOnPerceptionZone(curKrakenPoint, true)) {
-                    PathResult curPath = getPathBetweenPoints(map.tortugaLocation, krakenPoints.get(i), 0, true);
-                    if (curPath != null) {
-                        curPath.path.remove(curPath.path.size() - 1);
-                        toKrakenPaths.add(curPath);
-                    }
-                }
-            }
-            List<PathResult> totalPaths = new ArrayList<>(4);
-            for (PathResult toKrakenPath : toKrakenPaths) {
-                Point curKrakenPoint = toKrakenPath.end;
-                PathResult curPathAfter = getPathBetweenPoints(curKrakenPoint, map.chestLocation, 0, false);
-                if (curPathAfter != null) {
-                    PathResult totalPath = new PathResult();
-                    totalPath.start = map.captainLocation;
-                    totalPath.end = map.chestLocation;
-                    totalPath.goal = map.chestLocation;
-                    List<Point> curActualPath = new ArrayList<>();
-                    curActualPath.addAll(toTortuga.path);
-                    curActualPath.addAll(toKrakenPath.path);
-                    curActualPath.addAll(curPathAfter.path);
-                    totalPath.path = curActualPath;
-                    totalPaths.add(totalPath);
-                }
-            }
-            PathResult minPath = null;
-            for (PathResult curPath : totalPaths) {
-                if (curPath != null && (minPath == null || curPath.path.size() < minPath.path.size())) {
-                    minPath = curPath;
-                }
-            }
-            if (minPath != null && (shortestPath == null || minPath.path.size() < shortestPath.path.size())) {
-                shortestPath = minPath;
+    private int getFirstMove(int[] tree, int cell, boolean krakenPresent) {
+        if (tree[cell] != UNREACHABLE || !map.cellBlocked(cell, krakenPresent)) {
+            return -1;
+        }
+        int next = -1;
+        int[] neighborCells = new int[8];  // Local, as the oracle is shared by the threads solving its map
+        int neighborCount = map.getNeighborCells(cell, krakenPresent, neighborCells);
+        for (int i = 0; i < neighborCount; i++) {
+            int neighbor = neighborCells[i];
+            if (tree[neighbor] != UNREACHABLE && (next == -1 || tree[neighbor] < tree[next])) {
+                next = neighbor;
             }
         }
-        return shortestPath;
+        return next;
     }
 
     /**
-     * Gets path between point start and point end, with distance being the distance between the possible end point and actual goal
+     * Gets a shortest path between two points by following the distance tree of the end point
      * @param start Starting point
      * @param end Goal/end point
-     * @param distance Diagonal distance to the end point, reaching which the algorithm stops
-     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @param krakenPresent Whether the Kraken is alive or not
      * @return PathResult containing the path and start, end, goal points, null if no path found
      */
-    protected PathResult getPathBetweenPoints(Point start, Point end, int distance, boolean krakenPresent) {
-        PathResult result = new PathResult();
-        result.start = start;
-        result.goal = end;
+    PathResult getPath(Point start, Point end, boolean krakenPresent) {
+        int[] tree = getTree(end, krakenPresent);
+        int cell = map.cellIndex(start.x(), start.y());
         List<Point> path = new ArrayList<>();
-        Set<AStarTile> closed = new HashSet<>();
-        List<AStarTile> open = new ArrayList<>();
-        List<List<AStarTile>> tiles = new ArrayList<>(map.mapSize);
-        for (int i = 0; i < map.mapSize; i++) {
-            List<AStarTile> curList = new ArrayList<>(map.mapSize);
-            for (int j = 0; j < map.mapSize; j++) {
-                curList.add(new AStarTile(new Point(j, i)));
-            }
-            tiles.add(curList);
-        }
-        open.add(tiles.get(start.y).get(start.x));
-        open.get(0).updateCosts(null, 0, end);
-        while (open.size() > 0) {
-            AStarTile current = null;
-            int chosenI = -1;
-            for (int i = 0; i < open.size(); i++) {  // Pick tile with the lowest cost
-                AStarTile curOpen = open.get(i);
-                if (current == null || open.get(i).f < current.f ||
-                        curOpen.f == current.f && curOpen.h < current.h ||
-                        curOpen.f == current.f && curOpen.h == current.h && curOpen.location.manhattanDistance(end, 1) < current.location.manhattanDistance(end, 1)) {
-                    // First we check if the total cost is less, then, we check if the total cost is equal but the heuristic cost is smaller (so it's closer).
-                    // Then, if both total cost and equal cost are equal, we check if the manhattan distance is smaller than the current manhattan distance.
-                    // As manhattan distance is a direct difference of coordinates, this will prioritize paths that try to minimize the coordinate difference
-                    // instead of paths that may also be the shortest, but look slightly less logical, due to Chebyshev cost heuristics.
-                    chosenI = i;
-                    current = open.get(i);
-                }
-            }
-            open.remove(chosenI);
-            Point curLoc = current.location;
-            if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
-                krakenDiscovered = true;
-            }
-            if (curLoc.diagonalDistance(end, 1, 1) == distance) {  // We are close enough to the goal to finish
-                List<Point> outputPath = new ArrayList<>();
-                result.end = curLoc;
-                AStarTile curTile = current;
-                while (curTile != null) {
-                    outputPath.add(0, curTile.location);
-                    curTile = curTile.parent;
-                }
-                result.path = outputPath;
-                return result;
-            }
-            closed.add(current);
-            List<Point> pointNeighbors = map.getNeighbors(curLoc, krakenPresent);
-            for (Point pointNeighbor : pointNeighbors) {
-                AStarTile neighborTile = tiles.get(pointNeighbor.y).get(pointNeighbor.x);
-                if (closed.contains(neighborTile)) {
-                    continue;
-                }
-                neighborTile.updateCosts(current, 1, end);
-                if (!open.contains(neighborTile)) {
-                    open.add(neighborTile);
+        int next = getFirstMove(tree, cell, krakenPresent);
+        if (next != -1) {
+            path.add(map.cellPoint(cell));
+            cell = next;
+        }
+        if (tree[cell] == UNREACHABLE) {
+            return null;
+        }
+        path.add(map.cellPoint(cell));
+        int[] neighborCells = new int[8];
+        while (tree[cell] != 0) {
+            int neighborCount = map.getNeighborCells(cell, krakenPresent, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                if (tree[neighborCells[i]] == tree[cell] - 1) {
+                    cell = neighborCells[i];
+                    break;
                 }
             }
+            path.add(map.cellPoint(cell));
         }
-        return null;
+        PathResult result = new PathResult();
+        result.start = start;
+        result.goal = end;
+        result.end = end;
+        result.path = path;
+        return result;
     }
 }
 
 /**
- * A class to implement a visit tree structure, so that we don't have to copy the visited nodes each time
+ * Breadth-first distance fields from the chest and from Tortuga over the passable cells of a map, with the Kraken alive and dead.
+ * As every move costs 1, a distance field holds the exact number of moves from each cell to its target, taking the danger zones into account,
+ * which makes it an admissible lower bound for the rest of a path, unlike the diagonal distance.
+ * The fields are the distance trees of the map's DistanceOracle, so they are only computed once per map.
  */
-class VisitTree {
-    VisitTree parent = null;
-    Point curElem = null;
-    VisitTree(Point elem) {
-        curElem = elem;
+class DistanceFields {
+    static final int UNREACHABLE = DistanceOracle.UNREACHABLE;
+
+    Map map;
+    int[] chestKrakenAlive;
+    int[] chestKrakenDead;
+    int[] tortugaKrakenAlive;
+    int[] tortugaKrakenDead;
+    int chestCell;
+    int tortugaCell;
+
+    DistanceFields(Map map) {
+        this.map = map;
+        chestCell = map.cellIndex(map.chestLocation.x(), map.chestLocation.y());
+        tortugaCell = map.cellIndex(map.tortugaLocation.x(), map.tortugaLocation.y());
+        DistanceOracle oracle = map.getDistanceOracle();
+        chestKrakenAlive = oracle.getTree(map.chestLocation, true);
+        chestKrakenDead = oracle.getTree(map.chestLocation, false);
+        tortugaKrakenAlive = oracle.getTree(map.tortugaLocation, true);
+        tortugaKrakenDead = oracle.getTree(map.tortugaLocation, false);
     }
 
     /**
-     * Adds an element to the tree
-     * @param elem Element to add
-     * @param parent Parent node
+     * Gets a lower bound for the number of moves left until reaching the chest.
+     * Every cell that is passable with the Kraken alive is also passable with it dead, so distances with the Kraken dead are lower bounds whenever it can still be killed.
+     * Before visiting Tortuga the Kraken stays alive until Tortuga is reached, so the path either goes straight to the chest or through Tortuga first.
+     * @param cell Cell index
+     * @param tortugaVisited Whether Tortuga has been visited
+     * @param krakenAlive Whether the Kraken is alive or not
+     * @return Lower bound of the number of moves to the chest, Integer.MAX_VALUE if the chest cannot be reached
      */
-    VisitTree(Point elem, VisitTree parent) {
-        curElem = elem;
-        this.parent = parent;
+    int chestDistanceLowerBound(int cell, boolean tortugaVisited, boolean krakenAlive) {
+        if (tortugaVisited || !krakenAlive) {
+            return toBound(chestKrakenDead[cell]);
+        }
+        int direct = toBound(chestKrakenAlive[cell]);
+        if (tortugaKrakenAlive[cell] == UNREACHABLE || chestKrakenDead[tortugaCell] == UNREACHABLE) {
+            return direct;
+        }
+        return Math.min(direct, tortugaKrakenAlive[cell] + chestKrakenDead[tortugaCell]);
     }
 
     /**
-     * Check if element is in the tree
-     * @param elem The element to check for
-     * @return True if element is in tree, false otherwise
+     * Gets the distance field towards a target, if there is one
+     * @param target Target point
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return Distance field, null if there is no field towards the target
      */
-    public boolean isInTree(Point elem) {
-        VisitTree curNode = this;
-        while (curNode != null) {
-            if (curNode.curElem.equals(elem)) {
-                return true;
-            }
-            curNode = curNode.parent;
+    int[] getField(Point target, boolean krakenPresent) {
+        int targetCell = map.cellIndex(target.x(), target.y());
+        if (targetCell == chestCell) {
+            return krakenPresent ? chestKrakenAlive : chestKrakenDead;
         }
-        return false;
+        if (targetCell == tortugaCell) {
+            return krakenPresent ? tortugaKrakenAlive : tortugaKrakenDead;
+        }
+        return null;
+    }
+
+    private static int toBound(int distance) {
+        return distance == UNREACHABLE ? Integer.MAX_VALUE : distance;
     }
 }
 
 /**
- * Class for the Backtracking Algorithm
+ * Flight recorder event of generating a map, see MapFactory
  */
-class BacktrackingAlgorithm extends Algorithm {
+@Name("EvseyAntonovich.MapGeneration")
+@Label("Map Generation")
+@Category({"Pathfinding", "Maps"})
+class MapGenerationEvent extends Event {
+    @Label("Map Fingerprint")
+    long fingerprint;  // 0 if the input was invalid
+    @Label("Map Size")
+    int mapSize;
+    @Label("Random")
+    @Description("Whether the objects were placed randomly instead of read from the input")
+    boolean random;
+    @Label("Valid")
+    boolean valid;
+}
+
+/**
+ * Flight recorder event of a search of a single path leg of A* or one of its variants
+ */
+@Name("EvseyAntonovich.AStarLeg")
+@Label("A* Leg Search")
+@Category({"Pathfinding", "A*"})
+class AStarLegEvent extends Event {
+    @Label("Map Fingerprint")
+    long fingerprint;
+    @Label("Perception Type")
+    int perceptionType;
+    @Label("Start X")
+    int startX;
+    @Label("Start Y")
+    int startY;
+    @Label("Goal X")
+    int goalX;
+    @Label("Goal Y")
+    int goalY;
+    @Label("Kraken Present")
+    boolean krakenPresent;
+    @Label("Expansions")
+    @Description("Cells taken from the open list, or expanded by the incremental planner")
+    long expansions;
+    @Label("Path Length")
+    @Description("Number of points in the path, 0 if no path was found")
+    int pathLength;
+}
+
+/**
+ * Flight recorder event of the Tortuga detour phase of A*, from the search of the leg to Tortuga to the choice of the shortest detour
+ */
+@Name("EvseyAntonovich.TortugaDetour")
+@Label("Tortuga Detour")
+@Category({"Pathfinding", "A*"})
+class TortugaDetourEvent extends Event {
+    @Label("Map Fingerprint")
+    long fingerprint;
+    @Label("Perception Type")
+    int perceptionType;
+    @Label("Detour Path Length")
+    @Description("Number of points in the shortest detour, 0 if there is none")
+    int detourPathLength;
+    @Label("Direct Path Length")
+    @Description("Number of points in the path without the detour, 0 if there is none")
+    int directPathLength;
+}
+
+/**
+ * Flight recorder event of a whole backtracking solve
+ */
+@Name("EvseyAntonovich.BacktrackingSolve")
+@Label("Backtracking Solve")
+@Category({"Pathfinding", "Backtracking"})
+class BacktrackingSolveEvent extends Event {
+    @Label("Map Fingerprint")
+    long fingerprint;
+    @Label("Perception Type")
+    int perceptionType;
+    @Label("Parallel")
+    boolean parallel;
+    @Label("Path Length")
+    @Description("Number of points in the path, 0 if no path was found")
+    int pathLength;
+}
+
+/**
+ * Counters of the effort an algorithm spent on a run, to tell apart slow runs caused by expanding many cells,
+ * by a large open list, by many separate searches, by deep backtracking or by allocating a lot of memory.
+ * Counters are only filled when Algorithm.countSearchEffort is set, otherwise the algorithm has no counters and the searches skip counting.
+ * Maximums stay maximums when counters are added together, everything else is summed.
+ */
+class SearchCounters {
+    static final int PRUNE_VISITED = 0;  // The cell is already on the path since Tortuga was last visited
+    static final int PRUNE_UNREACHABLE = 1;  // The chest cannot be reached from the cell
+    static final int PRUNE_BOUND = 2;  // The path cannot become shorter than the shortest path found
+    static final int PRUNE_ITERATION_LIMIT = 3;  // The path would go past the iteration limit
+    static final int PRUNE_TRANSPOSITION = 4;  // The game state was already reached at an earlier iteration
+    static final String[] PRUNE_RULE_NAMES = {"visited", "unreachable", "bound", "iteration limit", "transposition"};
+
+    long nodesExpanded = 0;  // Cells or game states taken from the open list, or entered by backtracking
+    long nodesGenerated = 0;  // Cells or game states added to the open list, or to the next states of a backtracking state
+    int maxOpenListSize = 0;
+    long subSearches = 0;  // Separate searches of a path leg
+    int maxRecursionDepth = 0;  // Deepest backtracking state, the captain location being at depth 1
+    long[] pruneHits = new long[PRUNE_RULE_NAMES.length];  // Backtracking next states and game states cut off by each rule
+    long bytesAllocated = 0;  // Bytes allocated by the thread running the algorithm, -1 if the JVM cannot measure it
+
+    void recordOpenListSize(int size) {
+        if (size > maxOpenListSize) {
+            maxOpenListSize = size;
+        }
+    }
+
+    void recordRecursionDepth(int depth) {
+        if (depth > maxRecursionDepth) {
+            maxRecursionDepth = depth;
+        }
+    }
+
     /**
-     * Class which stores the current game state and possible next game states
-     */
-    class GameState {
-        Point curLoc = null;
-        Point goal = null;
-        VisitTree visitedBeforeTortuga;
-        VisitTree visitedAfterTortuga;
-        boolean tortugaVisited = false;
-        boolean krakenAlive = true;
-        boolean davyDiscovered = false;
-        boolean krakenDiscovered = false;
-        boolean rockDiscovered = false;
-        GameState parent = null;
-        PriorityQueue<GameState> nextPossibleStates = new PriorityQueue<>(8, new Comparator<GameState>() {
-            @Override
-            public int compare(GameState o1, GameState o2) {
-                // First compare diagonal distance to goal, then compare manhattan distance if diagonal distance is equal
-                if (o1.curLoc.diagonalDistance(o1.goal, 1, 1) < o2.curLoc.diagonalDistance(o2.goal, 1, 1)) {
-                    return -1;
-                } else if (o1.curLoc.diagonalDistance(o1.goal, 1, 1) == o2.curLoc.diagonalDistance(o2.goal, 1, 1)) {
-                    if (o1.curLoc.manhattanDistance(o1.goal, 1) < o2.curLoc.manhattanDistance(o2.goal, 1)) {
-                        return -1;
-                    } else if (o1.curLoc.manhattanDistance(o1.goal, 1) == o2.curLoc.manhattanDistance(o2.goal, 1)) {
-                        return 0;
-                    } else {
-                        return 1;
-                    }
-                } else {
-                    return 1;
-                }
-            }
-        });
-        int iteration = 1;
+     * Adds other counters to these
+     * @param other Counters to add
+     */
+    void add(SearchCounters other) {
+        nodesExpanded += other.nodesExpanded;
+        nodesGenerated += other.nodesGenerated;
+        recordOpenListSize(other.maxOpenListSize);
+        subSearches += other.subSearches;
+        recordRecursionDepth(other.maxRecursionDepth);
+        for (int i = 0; i < pruneHits.length; i++) {
+            pruneHits[i] += other.pruneHits[i];
+        }
+        bytesAllocated = bytesAllocated == -1 || other.bytesAllocated == -1 ? -1 : bytesAllocated + other.bytesAllocated;
+    }
 
-        GameState(Point startLoc, Point goal) {
-            curLoc = new Point(startLoc);
-            this.goal = new Point(goal);
-            visitedBeforeTortuga = new VisitTree(startLoc);
+    /**
+     * Gets the number of bytes allocated by the current thread so far
+     * @return Number of bytes, -1 if the JVM cannot measure it
+     */
+    static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean allocationBean && allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
         }
+        return -1;
+    }
+}
 
-        /**
-         * Copies the previos game state but with new location
-         * @param previousState The previous state
-         * @param newLoc New location
-         */
-        GameState(GameState previousState, Point newLoc) {
-            curLoc = new Point(newLoc);
-            goal = previousState.goal;
-            visitedBeforeTortuga = previousState.visitedBeforeTortuga;
-            visitedAfterTortuga = previousState.visitedAfterTortuga;
-            tortugaVisited = previousState.tortugaVisited;
-            krakenAlive = previousState.krakenAlive;
-            davyDiscovered = previousState.davyDiscovered;
-            krakenDiscovered = previousState.krakenDiscovered;
-            rockDiscovered = previousState.rockDiscovered;
-            parent = previousState;
-            iteration = previousState.iteration + 1;
+/**
+ * Base class for pathfinding algorithms
+ */
+abstract class Algorithm {
+    Map map;
+    public int perceptionType;
+    long timeStart;
+    SolutionCache solutionCache = null;  // Cache of solved maps to check before searching, null to always search
+    boolean countSearchEffort = false;  // Whether getPath fills search counters and returns them with the output
+    SearchCounters counters = null;  // Counters of the current run, null when the search effort is not counted
+    Algorithm(Map map, int perceptionType) {
+        this.map = map;
+        this.perceptionType = perceptionType;
+    }
+
+    /**
+     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest and the running time of the algorithm.
+     * If a solution cache is set and already holds this map, the search is skipped.
+     * If the search effort is counted, the output also holds the counters, and the bytes allocated are those of the calling thread only.
+     * @return Algorithm Output with timing and path
+     */
+    public AlgorithmOutput getPath() {
+        AlgorithmOutput output = new AlgorithmOutput();
+        counters = countSearchEffort ? new SearchCounters() : null;
+        long allocatedBytesStart = counters == null ? 0 : SearchCounters.getAllocatedBytes();
+        timeStart = System.nanoTime();
+        if (solutionCache == null) {
+            output.path = getPathBody();
+        } else {
+            output.path = getPathThroughCache();
+        }
+        output.millisecondRuntime = (double)(System.nanoTime() - timeStart) / 1000000;
+        output.map = map;
+        if (counters != null) {
+            counters.bytesAllocated = allocatedBytesStart == -1 ? -1 : SearchCounters.getAllocatedBytes() - allocatedBytesStart;
+            output.counters = counters;
         }
+        return output;
     }
-    PathResult shortestPath = null;
-    List<List<Integer>> shortestIterationBeforeTortuga = new ArrayList<>();
-    List<List<Integer>> shortestIterationAfterTortuga = new ArrayList<>();
+
+    /**
+     * Gets the path from the solution cache, searching for it and caching it if it is not there yet.
+     * The cache holds its own copies of the paths, so callers can modify the returned path.
+     * @return PathResult that contains the list of points that are part of the path
+     */
+    private PathResult getPathThroughCache() {
+        int symmetry = findsShortestPath() ? solutionCache.getCanonicalSymmetry(map) : 0;
+        SolutionCache.MapFingerprint fingerprint = SolutionCache.makeFingerprint(getCacheKey(), map, perceptionType, symmetry);
+        PathResult[] cached = new PathResult[1];
+        if (solutionCache.lookup(fingerprint, cached)) {
+            return SolutionCache.transformResult(cached[0], SolutionCache.inverse(symmetry), map.mapSize);
+        }
+        PathResult result = getPathBody();
+        solutionCache.store(fingerprint, SolutionCache.transformResult(result, symmetry, map.mapSize));
+        return result;
+    }
+
+    /**
+     * Checks whether the algorithm always finds a shortest path, so that the length of its path does not depend on the orientation of the map,
+     * and the solution cache may share an entry between the rotations and reflections of a map
+     * @return True for exact algorithms, false for ones whose path depends on the order cells are searched in
+     */
+    boolean findsShortestPath() {
+        return false;
+    }
+
+    /**
+     * Gets the part of the solution cache key which tells apart algorithms, and configurations of an algorithm, that may find different paths
+     * @return Key of the algorithm
+     */
+    String getCacheKey() {
+        return getClass().getName();
+    }
+
+    /**
+     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest
+     * @return PathResult that contains the list of points that are part of the path
+     */
+    abstract protected PathResult getPathBody();
+}
+
+/**
+ * Bounded least recently used cache of solved maps, which lets Algorithm.getPath skip the search for a map it has already solved.
+ * Maps are keyed by a fingerprint of everything the solution depends on: the map size, the six object locations, the perception type,
+ * and the algorithm with its configuration. Memory is capped by the number of entries and by the total number of cached path points.
+ * With symmetry normalization, the fingerprint is the smallest of the fingerprints of the 8 rotations and reflections of the map,
+ * so a rotated or mirrored map hits the same entry, and the cached path is transformed back.
+ * The danger zones are symmetric, so the transformed path is a valid path of the same length, but it may differ from the path the algorithm would find.
+ * Only algorithms that always find a shortest path are normalized, see Algorithm.findsShortestPath, as the tie-breaking of A*
+ * and whether it discovers the Kraken depend on the orientation, so a hit could change its result. Other algorithms always get the exact map as the key.
+ */
+class SolutionCache {
+    /**
+     * Canonical fingerprint of a map and the algorithm solving it
+     */
+    static class MapFingerprint {
+        String algorithmKey;
+        int mapSize;
+        int perceptionType;
+        int[] locations;  // Packed captain, Davy Jones, Kraken, rock, chest and Tortuga locations
+        int hashCode;
+
+        MapFingerprint(String algorithmKey, int mapSize, int perceptionType, int[] locations) {
+            this.algorithmKey = algorithmKey;
+            this.mapSize = mapSize;
+            this.perceptionType = perceptionType;
+            this.locations = locations;
+            hashCode = Objects.hash(algorithmKey, mapSize, perceptionType, Arrays.hashCode(locations));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MapFingerprint other)) {
+                return false;
+            }
+            return mapSize == other.mapSize && perceptionType == other.perceptionType
+                    && algorithmKey.equals(other.algorithmKey) && Arrays.equals(locations, other.locations);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    static final int SYMMETRY_COUNT = 8;
+
+    int maxEntries;
+    long maxPoints;
+    boolean normalizeSymmetries;
+    long points = 0;  // Total number of points in the cached paths
+    long hits = 0;
+    long misses = 0;
+    long evictions = 0;
+    LinkedHashMap<MapFingerprint, PathResult> entries = new LinkedHashMap<>(16, 0.75f, true);  // Iterates from the least recently used entry, null values are cached losses
+
+    /**
+     * @param maxEntries Maximum number of cached solutions
+     * @param maxPoints Maximum total number of points in the cached paths
+     * @param normalizeSymmetries Whether rotated and mirrored maps share an entry, for the algorithms that always find a shortest path
+     */
+    SolutionCache(int maxEntries, long maxPoints, boolean normalizeSymmetries) {
+        this.maxEntries = maxEntries;
+        this.maxPoints = maxPoints;
+        this.normalizeSymmetries = normalizeSymmetries;
+    }
+    SolutionCache(int maxEntries) {
+        this(maxEntries, (long)maxEntries * 64, false);
+    }
+
+    /**
+     * Transforms a coordinate pair with one of the 8 rotations and reflections of the map
+     * @param symmetry Number of the symmetry, 0 is the identity
+     * @param x Horizontal coordinate
+     * @param y Vertical coordinate
+     * @param mapSize Size of the map
+     * @return Packed transformed point
+     */
+    static int transform(int symmetry, int x, int y, int mapSize) {
+        int last = mapSize - 1;
+        return switch (symmetry) {
+            case 0 -> Point.pack(x, y);
+            case 1 -> Point.pack(last - x, y);
+            case 2 -> Point.pack(x, last - y);
+            case 3 -> Point.pack(last - x, last - y);
+            case 4 -> Point.pack(y, x);
+            case 5 -> Point.pack(last - y, x);
+            case 6 -> Point.pack(y, last - x);
+            case 7 -> Point.pack(last - y, last - x);
+            default -> throw new IllegalArgumentException("Unknown symmetry " + symmetry);
+        };
+    }
+
+    /**
+     * Gets the symmetry which undoes a symmetry
+     * @param symmetry Number of the symmetry
+     * @return Number of the inverse symmetry
+     */
+    static int inverse(int symmetry) {
+        return symmetry == 5 ? 6 : symmetry == 6 ? 5 : symmetry;  // All the others are reflections, which undo themselves
+    }
+
+    /**
+     * Gets the symmetry that gives the canonical fingerprint of a map
+     * @param map Map
+     * @return Number of the symmetry, always 0 without symmetry normalization
+     */
+    int getCanonicalSymmetry(Map map) {
+        if (!normalizeSymmetries) {
+            return 0;
+        }
+        Point[] locations = getLocations(map);
+        int best = 0;
+        int[] bestLocations = transformLocations(locations, 0, map.mapSize);
+        for (int symmetry = 1; symmetry < SYMMETRY_COUNT; symmetry++) {
+            int[] curLocations = transformLocations(locations, symmetry, map.mapSize);
+            if (Arrays.compare(curLocations, bestLocations) < 0) {
+                best = symmetry;
+                bestLocations = curLocations;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Makes the fingerprint of a map transformed with a symmetry
+     * @param algorithmKey Algorithm and its configuration
+     * @param map Map
+     * @param perceptionType Perception type of the captain
+     * @param symmetry Number of the symmetry
+     * @return Fingerprint
+     */
+    static MapFingerprint makeFingerprint(String algorithmKey, Map map, int perceptionType, int symmetry) {
+        return new MapFingerprint(algorithmKey, map.mapSize, perceptionType, transformLocations(getLocations(map), symmetry, map.mapSize));
+    }
+
+    private static Point[] getLocations(Map map) {
+        return new Point[]{map.captainLocation, map.davyLocation, map.krakenLocation, map.rockLocation, map.chestLocation, map.tortugaLocation};
+    }
+
+    private static int[] transformLocations(Point[] locations, int symmetry, int mapSize) {
+        int[] transformed = new int[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            transformed[i] = transform(symmetry, locations[i].x(), locations[i].y(), mapSize);
+        }
+        return transformed;
+    }
+
+    /**
+     * Copies a path result, transforming all of its points with a symmetry
+     * @param result Path result, can be null
+     * @param symmetry Number of the symmetry
+     * @param mapSize Size of the map
+     * @return Transformed copy, null if the result is null
+     */
+    static PathResult transformResult(PathResult result, int symmetry, int mapSize) {
+        if (result == null) {
+            return null;
+        }
+        PathResult copy = new PathResult();
+        copy.start = transformPoint(result.start, symmetry, mapSize);
+        copy.end = transformPoint(result.end, symmetry, mapSize);
+        copy.goal = transformPoint(result.goal, symmetry, mapSize);
+        copy.path = new ArrayList<>(result.path.size());
+        for (Point point : result.path) {
+            copy.path.add(transformPoint(point, symmetry, mapSize));
+        }
+        return copy;
+    }
+
+    private static Point transformPoint(Point point, int symmetry, int mapSize) {
+        if (point == null || symmetry == 0) {
+            return point;
+        }
+        int packed = transform(symmetry, point.x(), point.y(), mapSize);
+        return new Point(Point.unpackX(packed), Point.unpackY(packed));
+    }
+
+    /**
+     * Looks up the solution of a map
+     * @param fingerprint Canonical fingerprint of the map
+     * @return True if the solution is cached, in which case it is written into the first element of the result array
+     */
+    synchronized boolean lookup(MapFingerprint fingerprint, PathResult[] result) {
+        if (!entries.containsKey(fingerprint)) {
+            misses++;
+            return false;
+        }
+        hits++;
+        result[0] = entries.get(fingerprint);
+        return true;
+    }
+
+    /**
+     * Caches the solution of a map, evicting the least recently used solutions while the cache is over its limits
+     * @param fingerprint Canonical fingerprint of the map
+     * @param result Solution in canonical orientation, null if the map has no solution
+     */
+    synchronized void store(MapFingerprint fingerprint, PathResult result) {
+        PathResult previous = entries.put(fingerprint, result);
+        points += getPointCount(result) - getPointCount(previous);
+        Iterator<java.util.Map.Entry<MapFingerprint, PathResult>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || points > maxPoints) && iterator.hasNext()) {
+            java.util.Map.Entry<MapFingerprint, PathResult> eldest = iterator.next();
+            points -= getPointCount(eldest.getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static long getPointCount(PathResult result) {
+        return result == null ? 0 : result.path.size();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
+
+/**
+ * Class for the A* algorithm
+ */
+class AStarAlgorithm extends Algorithm {
+    /**
+     * Reusable state of the A* search over one map, so that repeated searches on the same map do not allocate anything.
+     * Per-cell values are only valid for cells stamped with the current search generation, so starting a new search only bumps the generation.
+     * The open list is an indexed binary min-heap of cells, ordered by total cost, then heuristic cost, then manhattan distance to the goal,
+     * and then by the order the cells were opened in, so cells are picked in exactly the same order as a linear scan of an insertion-ordered list would pick them.
+     * The context can also hold several layers of the map for the layered search, in which case state index = layer * cellCount + cell index.
+     * The heuristic cost is the diagonal distance to the target, unless a distance field is given, in which case it is the exact distance.
+     */
+    class AStarSearchContext {
+        int cellCount = map.mapSize * map.mapSize;
+        int layers;
+        int[] g;
+        int[] h;
+        int[] f;
+        int[] manhattan;
+        int[] parent;  // Cell index of the parent, -1 for the start cell
+        int[] openOrder;  // Order in which the cell was first added to the open list, used as the final tie-break
+        int[] heapIndex;  // Position in the open list heap, -1 if not in the open list
+        int[] cellGeneration;  // Generation of the search in which the per-cell values were last initialized
+        long[] closed;  // Closed cells bitset
+        int[] closedWordGeneration;  // Generation of the search in which each word of the closed bitset was last cleared
+        int[] heap;
+        int heapSize = 0;
+        int openedCount = 0;
+        int generation = 0;
+        Point target;
+        int[] heuristicField = null;  // Distances to the target used as the heuristic cost, null to use the diagonal distance
+        DistanceFields layeredHeuristic = null;  // Lower bounds to the chest used as the heuristic cost of the layered search, null to use the diagonal distance
+
+        AStarSearchContext(int layers) {
+            this.layers = layers;
+            int stateCount = layers * cellCount;
+            g = new int[stateCount];
+            h = new int[stateCount];
+            f = new int[stateCount];
+            manhattan = new int[stateCount];
+            parent = new int[stateCount];
+            openOrder = new int[stateCount];
+            heapIndex = new int[stateCount];
+            cellGeneration = new int[stateCount];
+            closed = new long[(stateCount + 63) / 64];
+            closedWordGeneration = new int[closed.length];
+            heap = new int[stateCount];
+        }
+
+        /**
+         * Gets the map cell of a search state
+         * @param state State index
+         * @return Cell index
+         */
+        int cellOf(int state) {
+            return state < cellCount ? state : state % cellCount;
+        }
+
+        /**
+         * Prepares the context for a new search, invalidating all the per-cell values of the previous search
+         * @param target Goal point for computing h cost
+         */
+        void reset(Point target) {
+            reset(target, null);
+        }
+
+        /**
+         * Prepares the context for a new search, invalidating all the per-cell values of the previous search
+         * @param target Goal point for computing h cost
+         * @param heuristicField Distances to the target to use as h cost, null to use the diagonal distance
+         */
+        void reset(Point target, int[] heuristicField) {
+            this.target = target;
+            this.heuristicField = heuristicField;
+            heapSize = 0;
+            openedCount = 0;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {  // Stamps would become ambiguous after overflowing, so we clear them instead
+                Arrays.fill(cellGeneration, 0);
+                Arrays.fill(closedWordGeneration, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Initializes the per-cell values of a cell, if it has not been initialized during this search yet
+         * @param cell Cell index
+         */
+        void touch(int cell) {
+            if (cellGeneration[cell] != generation) {
+                cellGeneration[cell] = generation;
+                g[cell] = -1;
+                h[cell] = -1;
+                f[cell] = -1;
+                manhattan[cell] = -1;
+                parent[cell] = -1;
+                openOrder[cell] = -1;
+                heapIndex[cell] = -1;
+            }
+        }
+
+        boolean isClosed(int cell) {
+            int word = cell >>> 6;
+            return closedWordGeneration[word] == generation && (closed[word] & (1L << cell)) != 0;
+        }
+
+        void close(int cell) {
+            int word = cell >>> 6;
+            if (closedWordGeneration[word] != generation) {
+                closedWordGeneration[word] = generation;
+                closed[word] = 0;
+            }
+            closed[word] |= 1L << cell;
+        }
+
+        /**
+         * Updates the costs of a cell
+         * @param cell Cell being updated
+         * @param neighbor The neighbor cell from which the cost is being updated, -1 if this is the start cell
+         * @param cost Cost of movement to this cell
+         */
+        void updateCosts(int cell, int neighbor, int cost) {
+            touch(cell);
+            int x = map.cellX(cellOf(cell));
+            int y = map.cellY(cellOf(cell));
+            h[cell] = getHeuristicCost(cell, x, y);
+            manhattan[cell] = Point.manhattanDistance(x, y, target.x(), target.y(), 1);
+            if (neighbor != -1) {
+                if (g[cell] == -1 || g[neighbor] + cost < g[cell]) {
+                    g[cell] = g[neighbor] + cost;
+                    parent[cell] = neighbor;
+                }
+            } else {
+                g[cell] = 0;
+            }
+            f[cell] = g[cell] + h[cell];
+        }
+
+        /**
+         * Gets the heuristic cost of a state
+         * @param state State index
+         * @param x Horizontal coordinate of the state's cell
+         * @param y Vertical coordinate of the state's cell
+         * @return Heuristic cost, at least the number of states if the target cannot be reached at all
+         */
+        int getHeuristicCost(int state, int x, int y) {
+            if (heuristicField != null) {
+                int distance = heuristicField[cellOf(state)];
+                return distance == DistanceFields.UNREACHABLE ? cellCount : distance;
+            }
+            if (layeredHeuristic != null) {
+                int layer = state / cellCount;
+                int bound = layeredHeuristic.chestDistanceLowerBound(cellOf(state), layer != LAYER_BEFORE_TORTUGA, layer != LAYER_KRAKEN_DEAD);
+                return bound == Integer.MAX_VALUE ? layers * cellCount : bound;
+            }
+            return Point.diagonalDistance(x, y, target.x(), target.y(), 1, 1);
+        }
+
+        boolean openIsEmpty() {
+            return heapSize == 0;
+        }
+
+        boolean isOpen(int cell) {
+            return cellGeneration[cell] == generation && heapIndex[cell] != -1;
+        }
+
+        /**
+         * Adds a cell with already computed costs to the open list
+         * @param cell Cell index
+         */
+        void open(int cell) {
+            openOrder[cell] = openedCount++;
+            heapIndex[cell] = heapSize;
+            heap[heapSize++] = cell;
+            siftUp(heapIndex[cell]);
+            if (counters != null) {
+                counters.nodesGenerated++;
+                counters.recordOpenListSize(heapSize);
+            }
+        }
+
+        /**
+         * Restores the heap order after the costs of a cell in the open list have been lowered
+         * @param cell Cell whose costs have been lowered
+         */
+        void decreaseKey(int cell) {
+            siftUp(heapIndex[cell]);
+        }
+
+        /**
+         * Removes and returns the cell with the lowest cost from the open list
+         * @return Cell with the lowest cost, -1 if the open list is empty
+         */
+        int poll() {
+            if (heapSize == 0) {
+                return -1;
+            }
+            int top = heap[0];
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapIndex[heap[0]] = 0;
+                siftDown(0);
+            }
+            heapIndex[top] = -1;
+            if (counters != null) {
+                counters.nodesExpanded++;
+            }
+            return top;
+        }
+
+        /**
+         * Checks if cell a should be picked before cell b
+         * @param a First cell
+         * @param b Second cell
+         * @return True if a has priority over b
+         */
+        private boolean less(int a, int b) {
+            // First we check if the total cost is less, then, we check if the total cost is equal but the heuristic cost is smaller (so it's closer).
+            // Then, if both total cost and equal cost are equal, we check if the manhattan distance is smaller than the current manhattan distance.
+            // As manhattan distance is a direct difference of coordinates, this will prioritize paths that try to minimize the coordinate difference
+            // instead of paths that may also be the shortest, but look slightly less logical, due to Chebyshev cost heuristics.
+            if (f[a] != f[b]) {
+                return f[a] < f[b];
+            }
+            if (h[a] != h[b]) {
+                return h[a] < h[b];
+            }
+            if (manhattan[a] != manhattan[b]) {
+                return manhattan[a] < manhattan[b];
+            }
+            return openOrder[a] < openOrder[b];
+        }
+
+        private void siftUp(int i) {
+            int cell = heap[i];
+            while (i > 0) {
+                int parentI = (i - 1) / 2;
+                int parentCell = heap[parentI];
+                if (!less(cell, parentCell)) {
+                    break;
+                }
+                heap[i] = parentCell;
+                heapIndex[parentCell] = i;
+                i = parentI;
+            }
+            heap[i] = cell;
+            heapIndex[cell] = i;
+        }
+
+        private void siftDown(int i) {
+            int cell = heap[i];
+            while (true) {
+                int childI = 2 * i + 1;
+                if (childI >= heapSize) {
+                    break;
+                }
+                if (childI + 1 < heapSize && less(heap[childI + 1], heap[childI])) {
+                    childI++;
+                }
+                if (!less(heap[childI], cell)) {
+                    break;
+                }
+                heap[i] = heap[childI];
+                heapIndex[heap[i]] = i;
+                i = childI;
+            }
+            heap[i] = cell;
+            heapIndex[cell] = i;
+        }
+
+        /**
+         * Gets the path from the start of the search to a cell by following the parents
+         * @param cell The last cell of the path
+         * @return List of points from the start to the cell
+         */
+        List<Point> getPathTo(int cell) {
+            List<Point> path = new ArrayList<>();
+            while (cell != -1) {
+                path.add(map.cellPoint(cellOf(cell)));
+                cell = parent[cell];
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+    /**
+     * Reusable state of the bidirectional breadth-first search over one map, see getPathBetweenPointsBidirectional.
+     * As in AStarSearchContext, per-cell values are only valid for cells stamped with the current search generation.
+     */
+    class BidirectionalSearchContext {
+        int cellCount = map.mapSize * map.mapSize;
+        int[] forwardDistance;  // Moves from the start, -1 if not reached by the forward search
+        int[] backwardDistance;  // Moves to the nearest end cell, -1 if not reached by the backward search
+        int[] forwardParent;  // Previous cell on the way from the start, -1 for the start cell
+        int[] backwardParent;  // Next cell on the way to the end, -1 for the end cells
+        int[] cellGeneration;
+        int[] forwardQueue;
+        int[] backwardQueue;
+        int generation = 0;
+
+        BidirectionalSearchContext() {
+            forwardDistance = new int[cellCount];
+            backwardDistance = new int[cellCount];
+            forwardParent = new int[cellCount];
+            backwardParent = new int[cellCount];
+            cellGeneration = new int[cellCount];
+            forwardQueue = new int[cellCount];
+            backwardQueue = new int[cellCount];
+        }
+
+        /**
+         * Prepares the context for a new search, invalidating all the per-cell values of the previous search
+         */
+        void reset() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(cellGeneration, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Initializes the per-cell values of a cell, if it has not been initialized during this search yet
+         * @param cell Cell index
+         */
+        void touch(int cell) {
+            if (cellGeneration[cell] != generation) {
+                cellGeneration[cell] = generation;
+                forwardDistance[cell] = -1;
+                backwardDistance[cell] = -1;
+                forwardParent[cell] = -1;
+                backwardParent[cell] = -1;
+            }
+        }
+
+        boolean reachedForward(int cell) {
+            return cellGeneration[cell] == generation && forwardDistance[cell] != -1;
+        }
+
+        boolean reachedBackward(int cell) {
+            return cellGeneration[cell] == generation && backwardDistance[cell] != -1;
+        }
+
+        /**
+         * Gets the path through an edge between a cell reached by the forward search and a cell reached by the backward search
+         * @param forwardCell Cell reached by the forward search
+         * @param backwardCell Cell reached by the backward search, can be the same as forwardCell
+         * @return List of points from the start to an end cell
+         */
+        List<Point> getPathThrough(int forwardCell, int backwardCell) {
+            List<Point> path = new ArrayList<>();
+            for (int cell = forwardCell; cell != -1; cell = forwardParent[cell]) {
+                path.add(map.cellPoint(cell));
+            }
+            Collections.reverse(path);
+            int cell = forwardCell == backwardCell ? backwardParent[backwardCell] : backwardCell;
+            for (; cell != -1; cell = backwardParent[cell]) {
+                path.add(map.cellPoint(cell));
+            }
+            return path;
+        }
+    }
+    int[] neighborCells = new int[8];  // Buffer for the neighbor cells of the tile being expanded
+    AStarSearchContext searchContext;
+    AStarSearchContext layeredSearchContext = null;  // Created on first use of the layered search
+    BidirectionalSearchContext bidirectionalSearchContext = null;  // Created on first use of the bidirectional search
+    boolean layeredSearch;
+    boolean exactHeuristic;
+    int legSearch;
+    DistanceFields distanceFields = null;  // Created on first use of the exact heuristic
+
+    static final int LEG_SEARCH_UNIDIRECTIONAL = 0;
+    // Discovers the Kraken from the cells of both frontiers, a superset of the cells A* expands, so the Tortuga detour is tried on more maps,
+    // but the path length and the choice of the detour are the same, see getPathBetweenPointsBidirectional
+    static final int LEG_SEARCH_BIDIRECTIONAL = 1;
+    static final int LEG_SEARCH_INCREMENTAL = 2;  // A* for the legs before the Kraken is killed, the map's incremental planner for all the legs after it
+    static final int LEG_SEARCH_ORACLE = 3;  // A* for the direct leg, lookups in the map's distance oracle for the Tortuga detour
+
+    /**
+     * @param map Map to solve
+     * @param perceptionType Perception type of the captain
+     * @param layeredSearch Whether to find the whole path in a single search, see getLayeredPath
+     * @param exactHeuristic Whether to use the breadth-first distances to the chest and Tortuga as the heuristic cost instead of the diagonal distance.
+     *                       Searches then go straight along a shortest path, so fewer cells are expanded, which also means that
+     *                       the Kraken is discovered less often by the separate searches, and the Tortuga detour is tried less often.
+     * @param legSearch Search used for each leg of the path when the layered search is disabled,
+     *                  LEG_SEARCH_UNIDIRECTIONAL for A* from the start, LEG_SEARCH_BIDIRECTIONAL for a breadth-first search from both ends,
+     *                  LEG_SEARCH_INCREMENTAL to answer the legs after the Kraken is killed with the map's IncrementalPlanner,
+     *                  or LEG_SEARCH_ORACLE to answer the legs of the Tortuga detour with the map's DistanceOracle
+     */
+    AStarAlgorithm(Map map, int perceptionType, boolean layeredSearch, boolean exactHeuristic, int legSearch) {
+        super(map, perceptionType);
+        this.layeredSearch = layeredSearch;
+        this.exactHeuristic = exactHeuristic;
+        this.legSearch = legSearch;
+        searchContext = new AStarSearchContext(1);
+    }
+    AStarAlgorithm(Map map, int perceptionType, boolean layeredSearch, boolean exactHeuristic) {
+        this(map, perceptionType, layeredSearch, exactHeuristic, LEG_SEARCH_UNIDIRECTIONAL);
+    }
+
+    @Override
+    String getCacheKey() {
+        return super.getCacheKey() + "/" + layeredSearch + "/" + exactHeuristic + "/" + legSearch;
+    }
+    AStarAlgorithm(Map map, int perceptionType, boolean layeredSearch) {
+        this(map, perceptionType, layeredSearch, false);
+    }
+    AStarAlgorithm(Map map, int perceptionType) {
+        this(map, perceptionType, false);
+    }
+
+    static final int LAYER_BEFORE_TORTUGA = 0;
+    static final int LAYER_KRAKEN_ALIVE = 1;  // Tortuga visited, but the Kraken is still alive
+    static final int LAYER_KRAKEN_DEAD = 2;
+
+    boolean krakenDiscovered = false;
+
+    /**
+     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest using A*.
+     * First, it gets the shortest path from Jack Sparrow to the chest, without making a detour to Tortuga Island.
+     * Then, it calculates a path to Tortuga Island, if the Kraken has been discovered during the first path.
+     * Afterwards, it calculates four paths - from Tortuga to each of the corners near the Kraken.
+     * Afterwards, for each of the valid paths generated to the corners, it generates another path - from that corner to the chest.
+     * Afterwards, it concatenates all the intermediate paths, if they are valid (not null), and gets the minimum path.
+     * If this minimum path is shorter than the standard non-Tortuga path, or if there is NO non-Tortuga path, it instead returns the Tortuga path.
+     * Otherwise, it returns the standard non-Tortuga path, or no path at all, if the goal is completely unreachable.
+     * If the layered search is enabled, the whole path is instead computed in a single search, see getLayeredPath.
+     * @return PathResult that contains the list of points that are part of the path
+     */
+    @Override
+    protected PathResult getPathBody() {
+        if (exactHeuristic && distanceFields == null) {
+            distanceFields = new DistanceFields(map);
+        }
+        if (layeredSearch) {
+            if (counters != null) {
+                counters.subSearches++;
+            }
+            return getLayeredPath();
+        }
+        if (counters != null) {
+            counters.subSearches++;
+        }
+        PathResult shortestPath = searchLeg(map.captainLocation, map.chestLocation, true, false);
+        if (shouldTryTortugaDetour(shortestPath)) {
+            TortugaDetourEvent event = new TortugaDetourEvent();
+            event.begin();
+            PathResult detourPath = getTortugaDetourPath();
+            if (event.shouldCommit()) {
+                event.fingerprint = map.getFingerprint();
+                event.perceptionType = perceptionType;
+                event.detourPathLength = detourPath == null ? 0 : detourPath.path.size();
+                event.directPathLength = shortestPath == null ? 0 : shortestPath.path.size();
+                event.commit();
+            }
+            if (detourPath != null && (shortestPath == null || detourPath.path.size() < shortestPath.path.size())) {
+                shortestPath = detourPath;
+            }
+        }
+        return shortestPath;
+    }
+
+    /**
+     * Checks whether the Tortuga detour has to be tried after the direct leg, which is when the Kraken was discovered by the search of that leg
+     * @param directPath Path of the direct leg, null if the chest could not be reached without killing the Kraken
+     * @return True to try the detour
+     */
+    boolean shouldTryTortugaDetour(PathResult directPath) {
+        return krakenDiscovered;
+    }
+
+    /**
+     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest which visits Tortuga and kills the Kraken from one of the corners diagonal to it
+     * @return PathResult that contains the list of points that are part of the path, null if there is no such path
+     */
+    protected PathResult getTortugaDetourPath() {
+        PathResult toTortuga = getDetourLegPath(map.captainLocation, map.tortugaLocation, true);
+        if (toTortuga == null) {
+            return null;
+        }
+        toTortuga.path.remove(toTortuga.path.size() - 1);
+        List<Point> krakenPoints = Arrays.asList(
+                map.krakenLocation.sum(-1, -1, map),
+                map.krakenLocation.sum(1, -1, map),
+                map.krakenLocation.sum(1, 1, map),
+                map.krakenLocation.sum(-1, 1, map));
+        List<PathResult> toKrakenPaths = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++) {
+            Point curKrakenPoint = krakenPoints.get(i);
+            if (map.pointWithinBounds(curKrakenPoint) && !map.pointOnPerceptionZone(curKrakenPoint, true)) {
+                PathResult curPath = getDetourLegPath(map.tortugaLocation, krakenPoints.get(i), true);
+                if (curPath != null) {
+                    curPath.path.remove(curPath.path.size() - 1);
+                    toKrakenPaths.add(curPath);
+                }
+            }
+        }
+        List<PathResult> totalPaths = new ArrayList<>(4);
+        for (PathResult toKrakenPath : toKrakenPaths) {
+            Point curKrakenPoint = toKrakenPath.end;
+            PathResult curPathAfter = getDetourLegPath(curKrakenPoint, map.chestLocation, false);
+            if (curPathAfter != null) {
+                PathResult totalPath = new PathResult();
+                totalPath.start = map.captainLocation;
+                totalPath.end = map.chestLocation;
+                totalPath.goal = map.chestLocation;
+                List<Point> curActualPath = new ArrayList<>();
+                curActualPath.addAll(toTortuga.path);
+                curActualPath.addAll(toKrakenPath.path);
+                curActualPath.addAll(curPathAfter.path);
+                totalPath.path = curActualPath;
+                totalPaths.add(totalPath);
+            }
+        }
+        PathResult minPath = null;
+        for (PathResult curPath : totalPaths) {
+            if (curPath != null && (minPath == null || curPath.path.size() < minPath.path.size())) {
+                minPath = curPath;
+            }
+        }
+        return minPath;
+    }
+
+    /**
+     * Gets the path of a leg of the Tortuga detour.
+     * Unlike the direct leg, whether the Kraken is discovered on these legs does not matter, so they do not have to be searched with A*.
+     * With the incremental leg search, all the legs after the Kraken is killed are answered by the map's planner searching backwards from the chest,
+     * which is kept across runs, so every corner and every later run only searches the cells that the earlier ones did not need,
+     * and changes of the map's cells between runs are repaired rather than replanned.
+     * With the oracle leg search, all the legs are lookups in the map's distance oracle.
+     * @param start Starting point
+     * @param end Goal/end point
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @return PathResult containing the path and start, end, goal points, null if no path found
+     */
+    protected PathResult getDetourLegPath(Point start, Point end, boolean krakenPresent) {
+        if (counters != null) {
+            counters.subSearches++;
+        }
+        return searchLeg(start, end, krakenPresent, true);
+    }
+
+    /**
+     * Searches a leg of the path and records an AStarLegEvent.
+     * While the event is recorded, the leg gets counters of its own for the number of expansions, which are then added to the counters of the run.
+     * @param start Starting point
+     * @param end Goal/end point
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @param detour Whether the leg is part of the Tortuga detour, see getDetourLegPath
+     * @return PathResult containing the path and start, end, goal points, null if no path found
+     */
+    private PathResult searchLeg(Point start, Point end, boolean krakenPresent, boolean detour) {
+        AStarLegEvent event = new AStarLegEvent();
+        if (!event.isEnabled()) {
+            return detour ? searchDetourLeg(start, end, krakenPresent) : getPathBetweenPoints(start, end, 0, krakenPresent);
+        }
+        SearchCounters runCounters = counters;
+        counters = new SearchCounters();
+        event.begin();
+        PathResult result = detour ? searchDetourLeg(start, end, krakenPresent) : getPathBetweenPoints(start, end, 0, krakenPresent);
+        event.end();
+        if (event.shouldCommit()) {
+            event.fingerprint = map.getFingerprint();
+            event.perceptionType = perceptionType;
+            event.startX = start.x();
+            event.startY = start.y();
+            event.goalX = end.x();
+            event.goalY = end.y();
+            event.krakenPresent = krakenPresent;
+            event.expansions = counters.nodesExpanded;
+            event.pathLength = result == null ? 0 : result.path.size();
+            event.commit();
+        }
+        if (runCounters != null) {
+            runCounters.add(counters);
+        }
+        counters = runCounters;
+        return result;
+    }
+
+    private PathResult searchDetourLeg(Point start, Point end, boolean krakenPresent) {
+        if (legSearch == LEG_SEARCH_ORACLE) {
+            return map.getDistanceOracle().getPath(start, end, krakenPresent);
+        }
+        if (legSearch == LEG_SEARCH_INCREMENTAL && !krakenPresent && end.equals(map.chestLocation)) {
+            IncrementalPlanner planner = map.getChestPlanner();
+            synchronized (planner) {
+                long expandedBefore = planner.expandedCells;
+                PathResult result = planner.getPath(start);
+                if (counters != null) {
+                    counters.nodesExpanded += planner.expandedCells - expandedBefore;
+                }
+                return result;
+            }
+        }
+        return getPathBetweenPoints(start, end, 0, krakenPresent);
+    }
+
+    /**
+     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest with a single A* search over three layers of the map:
+     * before visiting Tortuga, after visiting Tortuga with the Kraken alive, and after killing the Kraken.
+     * Entering Tortuga moves the search from the first layer into the second, and entering a corner diagonal to the Kraken
+     * moves it from the second layer into the third, where the Kraken's perception zone is no longer blocked.
+     * This gives the best of the direct path and all the Tortuga detours at once, instead of running up to ten separate searches.
+     * Unlike getPathBody, the detour is always considered, not only when the Kraken was discovered on the direct path,
+     * so the path can be shorter than the one found with separate searches.
+     * @return PathResult that contains the list of points that are part of the path, null if the chest is unreachable
+     */
+    protected PathResult getLayeredPath() {
+        if (layeredSearchContext == null) {
+            layeredSearchContext = new AStarSearchContext(3);
+        }
+        AStarSearchContext context = layeredSearchContext;
+        int cellCount = context.cellCount;
+        int tortugaCell = map.cellIndex(map.tortugaLocation.x(), map.tortugaLocation.y());
+        int chestCell = map.cellIndex(map.chestLocation.x(), map.chestLocation.y());
+        context.reset(map.chestLocation);
+        context.layeredHeuristic = exactHeuristic ? distanceFields : null;
+        int startCell = map.cellIndex(map.captainLocation.x(), map.captainLocation.y());
+        int startState = getLayerAfterEntering(LAYER_BEFORE_TORTUGA, startCell, tortugaCell) * cellCount + startCell;
+        context.updateCosts(startState, -1, 0);
+        context.open(startState);
+        while (!context.openIsEmpty()) {
+            int current = context.poll();
+            int layer = current / cellCount;
+            int currentCell = current - layer * cellCount;
+            Point curLoc = map.cellPoint(currentCell);
+            if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                krakenDiscovered = true;
+            }
+            if (currentCell == chestCell) {
+                PathResult result = new PathResult();
+                result.start = map.captainLocation;
+                result.goal = map.chestLocation;
+                result.end = map.chestLocation;
+                result.path = context.getPathTo(current);
+                return result;
+            }
+            context.close(current);
+            int neighborCount = map.getNeighborCells(currentCell, layer != LAYER_KRAKEN_DEAD, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                int neighborCell = neighborCells[i];
+                int neighbor = getLayerAfterEntering(layer, neighborCell, tortugaCell) * cellCount + neighborCell;
+                if (context.isClosed(neighbor)) {
+                    continue;
+                }
+                context.updateCosts(neighbor, current, 1);
+                if (!context.isOpen(neighbor)) {
+                    context.open(neighbor);
+                } else {
+                    context.decreaseKey(neighbor);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the layer of the layered search after entering a cell
+     * @param layer Layer before entering the cell
+     * @param cell Cell being entered
+     * @param tortugaCell Cell of Tortuga
+     * @return New layer
+     */
+    int getLayerAfterEntering(int layer, int cell, int tortugaCell) {
+        if (layer == LAYER_BEFORE_TORTUGA && cell == tortugaCell) {
+            layer = LAYER_KRAKEN_ALIVE;
+        }
+        if (layer == LAYER_KRAKEN_ALIVE && Math.abs(map.cellX(cell) - map.krakenLocation.x()) == 1 && Math.abs(map.cellY(cell) - map.krakenLocation.y()) == 1) {
+            layer = LAYER_KRAKEN_DEAD;  // Corners diagonal to the Kraken are never in its perception zone, so it can be killed from there
+        }
+        return layer;
+    }
+
+    /**
+     * Gets path between point start and point end, with distance being the distance between the possible end point and actual goal
+     * @param start Starting point
+     * @param end Goal/end point
+     * @param distance Diagonal distance to the end point, reaching which the algorithm stops
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @return PathResult containing the path and start, end, goal points, null if no path found
+     */
+    protected PathResult getPathBetweenPoints(Point start, Point end, int distance, boolean krakenPresent) {
+        if (legSearch == LEG_SEARCH_BIDIRECTIONAL) {
+            return getPathBetweenPointsBidirectional(start, end, distance, krakenPresent);
+        }
+        PathResult result = new PathResult();
+        result.start = start;
+        result.goal = end;
+        AStarSearchContext context = searchContext;
+        context.reset(end, exactHeuristic && distance == 0 ? distanceFields.getField(end, krakenPresent) : null);
+        int startCell = map.cellIndex(start.x(), start.y());
+        context.updateCosts(startCell, -1, 0);
+        context.open(startCell);
+        while (!context.openIsEmpty()) {
+            int current = context.poll();  // Pick tile with the lowest cost
+            Point curLoc = map.cellPoint(current);
+            if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                krakenDiscovered = true;
+            }
+            if (curLoc.diagonalDistance(end, 1, 1) == distance) {  // We are close enough to the goal to finish
+                result.end = curLoc;
+                result.path = context.getPathTo(current);
+                return result;
+            }
+            context.close(current);
+            int neighborCount = map.getNeighborCells(current, krakenPresent, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                int neighbor = neighborCells[i];
+                if (context.isClosed(neighbor)) {
+                    continue;
+                }
+                context.updateCosts(neighbor, current, 1);
+                if (!context.isOpen(neighbor)) {
+                    context.open(neighbor);
+                } else {
+                    context.decreaseKey(neighbor);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets path between point start and point end with a breadth-first search from both ends, meeting in the middle.
+     * As every move costs 1, this gives a path of the same length as getPathBetweenPoints, though not necessarily the same path.
+     * It expands far fewer cells than a breadth-first search from the start alone, and does not depend on the diagonal distance being a good guess,
+     * but on open maps A* from the start still expands fewer cells, as it heads almost straight for the end point.
+     * The backward search starts from every cell at the given diagonal distance from the end point, so that the search stops at the same distance from it.
+     * The Kraken counts as discovered if it is perceived from any cell expanded by either search, from any cell of the path,
+     * or from any cell that A* may have expanded before reaching the end, so that the Tortuga detour is tried whenever A* would try it.
+     * If the end cannot be reached, those are all the cells reachable from the start.
+     * These cells are a superset of the ones A* expands, so the Kraken is discovered on more maps than with A*, and the detour is tried more often.
+     * This does not change the result: A* expands every cell whose diagonal-distance bound is below the direct path length,
+     * including the corners diagonal to the Kraken, from which it would be discovered, so when A* does not discover it,
+     * no detour through those corners can be shorter than the direct path, and the direct path is kept either way.
+     * @param start Starting point
+     * @param end Goal/end point
+     * @param distance Diagonal distance to the end point, reaching which the algorithm stops
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @return PathResult containing the path and start, end, goal points, null if no path found
+     */
+    protected PathResult getPathBetweenPointsBidirectional(Point start, Point end, int distance, boolean krakenPresent) {
+        if (bidirectionalSearchContext == null) {
+            bidirectionalSearchContext = new BidirectionalSearchContext();
+        }
+        BidirectionalSearchContext context = bidirectionalSearchContext;
+        context.reset();
+        int startCell = map.cellIndex(start.x(), start.y());
+        int forwardHead = 0;
+        int forwardTail = 0;
+        int backwardHead = 0;
+        int backwardTail = 0;
+        context.touch(startCell);
+        context.forwardDistance[startCell] = 0;
+        context.forwardQueue[forwardTail++] = startCell;
+        // Cells at exactly the given diagonal distance form the border of a square around the end point
+        for (int y = end.y() - distance; y <= end.y() + distance; y++) {
+            for (int x = end.x() - distance; x <= end.x() + distance; x++) {
+                if (!map.coordWithinBounds(x, y) || Point.diagonalDistance(x, y, end.x(), end.y(), 1, 1) != distance) {
+                    continue;
+                }
+                int cell = map.cellIndex(x, y);
+                if (cell != startCell && map.cellBlocked(cell, krakenPresent)) {
+                    continue;
+                }
+                context.touch(cell);
+                context.backwardDistance[cell] = 0;
+                context.backwardQueue[backwardTail++] = cell;
+            }
+        }
+        int meetingForwardCell = -1;
+        int meetingBackwardCell = -1;
+        if (context.reachedBackward(startCell)) {
+            meetingForwardCell = startCell;
+            meetingBackwardCell = startCell;
+        }
+        // Whole layers are expanded at a time, always on the side with the smaller frontier, and the search stops after the first layer in which the searches meet
+        while (meetingForwardCell == -1 && forwardHead < forwardTail && backwardHead < backwardTail) {
+            boolean forward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            int[] queue = forward ? context.forwardQueue : context.backwardQueue;
+            int[] ownDistance = forward ? context.forwardDistance : context.backwardDistance;
+            int[] otherDistance = forward ? context.backwardDistance : context.forwardDistance;
+            int[] ownParent = forward ? context.forwardParent : context.backwardParent;
+            int head = forward ? forwardHead : backwardHead;
+            int tail = forward ? forwardTail : backwardTail;
+            int layerEnd = tail;
+            int bestLength = Integer.MAX_VALUE;
+            for (; head < layerEnd; head++) {
+                int current = queue[head];
+                if (counters != null) {
+                    counters.nodesExpanded++;
+                }
+                Point curLoc = map.cellPoint(current);
+                if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                    krakenDiscovered = true;
+                }
+                int neighborCount = map.getNeighborCells(current, krakenPresent, neighborCells);
+                for (int i = 0; i < neighborCount; i++) {
+                    int neighbor = neighborCells[i];
+                    context.touch(neighbor);
+                    if (otherDistance[neighbor] != -1) {
+                        int length = ownDistance[current] + 1 + otherDistance[neighbor];
+                        if (length < bestLength) {
+                            bestLength = length;
+                            meetingForwardCell = forward ? current : neighbor;
+                            meetingBackwardCell = forward ? neighbor : current;
+                        }
+                    }
+                    if (ownDistance[neighbor] == -1) {
+                        ownDistance[neighbor] = ownDistance[current] + 1;
+                        ownParent[neighbor] = current;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            if (counters != null) {
+                counters.nodesGenerated += tail - layerEnd;
+                counters.recordOpenListSize(tail - layerEnd + (forward ? backwardTail - backwardHead : forwardTail - forwardHead));  // Both frontiers
+            }
+            if (forward) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+        }
+        if (meetingForwardCell == -1) {
+            // The end cannot be reached, so A* would have expanded every cell reachable from the start, and the Kraken is discovered if it is perceived from any of them
+            for (; forwardHead < forwardTail; forwardHead++) {
+                int current = context.forwardQueue[forwardHead];
+                if (counters != null) {
+                    counters.nodesExpanded++;
+                }
+                Point curLoc = map.cellPoint(current);
+                if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                    krakenDiscovered = true;
+                }
+                int neighborCount = map.getNeighborCells(current, krakenPresent, neighborCells);
+                for (int i = 0; i < neighborCount; i++) {
+                    int neighbor = neighborCells[i];
+                    context.touch(neighbor);
+                    if (context.forwardDistance[neighbor] == -1) {
+                        context.forwardDistance[neighbor] = context.forwardDistance[current] + 1;
+                        context.forwardQueue[forwardTail++] = neighbor;
+                    }
+                }
+            }
+            return null;
+        }
+        PathResult result = new PathResult();
+        result.start = start;
+        result.goal = end;
+        result.path = context.getPathThrough(meetingForwardCell, meetingBackwardCell);
+        result.end = result.path.get(result.path.size() - 1);
+        for (Point curLoc : result.path) {
+            if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                krakenDiscovered = true;
+            }
+        }
+        // A* expands cells in order of g + h and stops at a cell with g + h = moves + distance, so it may have expanded any cell with g + h up to that.
+        // The forward side goes on until it has passed all of them, so that the Kraken is discovered whenever A* may have discovered it
+        int bound = result.path.size() - 1 + distance;
+        for (; !krakenDiscovered && forwardHead < forwardTail; forwardHead++) {
+            int current = context.forwardQueue[forwardHead];
+            if (context.forwardDistance[current] > bound) {
+                break;
+            }
+            Point curLoc = map.cellPoint(current);
+            if (context.forwardDistance[current] + curLoc.diagonalDistance(end, 1, 1) > bound) {
+                continue;
+            }
+            if (counters != null) {
+                counters.nodesExpanded++;
+            }
+            if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                krakenDiscovered = true;
+            }
+            int neighborCount = map.getNeighborCells(current, krakenPresent, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                int neighbor = neighborCells[i];
+                context.touch(neighbor);
+                if (context.forwardDistance[neighbor] == -1) {
+                    context.forwardDistance[neighbor] = context.forwardDistance[current] + 1;
+                    context.forwardQueue[forwardTail++] = neighbor;
+                }
+            }
+        }
+        return result;
+    }
+}
+
+/**
+ * Class for the A* algorithm with Jump Point Search.
+ * As all the moves cost 1, many paths of the same length lead to each cell, and A* adds all of their cells to the open list.
+ * Jump Point Search only adds the cells where a shortest path may have to turn because of a blocked cell next to it, and jumps over all the cells in between,
+ * so it finds paths of the same length, while putting far fewer cells into the open list.
+ * The blocking rules and the Tortuga detour are the same as for A*, only the search of each leg is replaced,
+ * so the layered search and the bidirectional leg search, which replace that search as well, cannot be used with it.
+ */
+class JumpPointSearchAlgorithm extends AStarAlgorithm {
+    int[] jumpPointCells = new int[8];  // Buffer for the jump points found from the cell being expanded
+
+    /**
+     * @param map Map to solve
+     * @param perceptionType Perception type of the captain
+     * @param exactHeuristic Whether to use the breadth-first distances to the chest and Tortuga as the heuristic cost instead of the diagonal distance
+     * @param legSearch Search used for the legs of the Tortuga detour, see AStarAlgorithm, the direct leg is always searched with the jumps
+     * @throws IllegalArgumentException If legSearch is LEG_SEARCH_BIDIRECTIONAL, which would replace the jumps
+     */
+    JumpPointSearchAlgorithm(Map map, int perceptionType, boolean exactHeuristic, int legSearch) {
+        super(map, perceptionType, false, exactHeuristic, legSearch);
+        if (legSearch == LEG_SEARCH_BIDIRECTIONAL) {
+            throw new IllegalArgumentException("The bidirectional leg search cannot be used with Jump Point Search");
+        }
+    }
+    JumpPointSearchAlgorithm(Map map, int perceptionType) {
+        this(map, perceptionType, false, LEG_SEARCH_UNIDIRECTIONAL);
+    }
+
+    /**
+     * Gets path between point start and point end, with distance being the distance between the possible end point and actual goal.
+     * The Kraken counts as discovered if it is perceived from any cell that the jumps pass over.
+     * These are not the cells that A* would expand: usually there are more of them, but a jump can also pass by a cell next to the Kraken that A* expands,
+     * so whether the Tortuga detour is tried is decided by shouldTryTortugaDetour rather than by the discovery alone.
+     * @param start Starting point
+     * @param end Goal/end point
+     * @param distance Diagonal distance to the end point, reaching which the algorithm stops
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @return PathResult containing the path and start, end, goal points, null if no path found
+     */
+    @Override
+    protected PathResult getPathBetweenPoints(Point start, Point end, int distance, boolean krakenPresent) {
+        PathResult result = new PathResult();
+        result.start = start;
+        result.goal = end;
+        AStarSearchContext context = searchContext;
+        context.reset(end, exactHeuristic && distance == 0 ? distanceFields.getField(end, krakenPresent) : null);
+        int startCell = map.cellIndex(start.x(), start.y());
+        context.updateCosts(startCell, -1, 0);
+        context.open(startCell);
+        while (!context.openIsEmpty()) {
+            int current = context.poll();
+            Point curLoc = map.cellPoint(current);
+            checkKrakenDiscovered(curLoc.x(), curLoc.y());
+            if (curLoc.diagonalDistance(end, 1, 1) == distance) {  // We are close enough to the goal to finish
+                result.end = curLoc;
+                result.path = expandJumpPoints(context.getPathTo(current));
+                return result;
+            }
+            context.close(current);
+            int jumpPointCount = getJumpPoints(current, context.parent[current], end, distance, krakenPresent);
+            for (int i = 0; i < jumpPointCount; i++) {
+                int jumpPoint = jumpPointCells[i];
+                if (context.isClosed(jumpPoint)) {
+                    continue;
+                }
+                // Jumps are straight or diagonal lines, so their length is the diagonal distance
+                int cost = Point.diagonalDistance(map.cellX(current), map.cellY(current), map.cellX(jumpPoint), map.cellY(jumpPoint), 1, 1);
+                context.updateCosts(jumpPoint, current, cost);
+                if (!context.isOpen(jumpPoint)) {
+                    context.open(jumpPoint);
+                } else {
+                    context.decreaseKey(jumpPoint);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the Tortuga detour has to be tried after the direct leg.
+     * Besides the Kraken being discovered by the jumps, the detour is also tried whenever the diagonal distance along it,
+     * through any of the corners diagonal to the Kraken, is shorter than the direct path.
+     * Every detour shorter than the direct path is then tried, so the path is always the shorter of the two,
+     * which is also the path length of A* with the diagonal distance heuristic, see getPathBetweenPointsBidirectional.
+     * @param directPath Path of the direct leg, null if the chest could not be reached without killing the Kraken
+     * @return True to try the detour
+     */
+    @Override
+    boolean shouldTryTortugaDetour(PathResult directPath) {
+        if (krakenDiscovered || directPath == null) {
+            return true;
+        }
+        int directMoves = directPath.path.size() - 1;
+        int toTortuga = map.captainLocation.diagonalDistance(map.tortugaLocation, 1, 1);
+        for (int dx = -1; dx <= 1; dx += 2) {
+            for (int dy = -1; dy <= 1; dy += 2) {
+                int x = map.krakenLocation.x() + dx;
+                int y = map.krakenLocation.y() + dy;
+                if (map.coordWithinBounds(x, y)
+                        && toTortuga + Point.diagonalDistance(map.tortugaLocation.x(), map.tortugaLocation.y(), x, y, 1, 1)
+                        + Point.diagonalDistance(x, y, map.chestLocation.x(), map.chestLocation.y(), 1, 1) < directMoves) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets krakenDiscovered if the Kraken is perceived from a cell
+     * @param x Horizontal coordinate of the cell
+     * @param y Vertical coordinate of the cell
+     */
+    void checkKrakenDiscovered(int x, int y) {
+        int krakenX = map.krakenLocation.x();
+        int krakenY = map.krakenLocation.y();
+        if (perceptionType == 1 && Point.diagonalDistance(x, y, krakenX, krakenY, 1, 1) == 1 || perceptionType == 2 && Point.manhattanDistance(x, y, krakenX, krakenY, 1) <= 2) {
+            krakenDiscovered = true;
+        }
+    }
+
+    /**
+     * Writes the jump points reachable from a cell into jumpPointCells.
+     * Only the directions in which a shortest path through the parent may continue are searched:
+     * all eight for the start cell, straight ahead and the forced diagonals after a straight move,
+     * and the diagonal, its two straight components and the forced diagonals after a diagonal move.
+     * @param cell Cell being expanded
+     * @param parent Cell the search came from, -1 for the start cell
+     * @param end Goal/end point
+     * @param distance Diagonal distance to the end point, reaching which the algorithm stops
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @return Number of jump points written
+     */
+    int getJumpPoints(int cell, int parent, Point end, int distance, boolean krakenPresent) {
+        int x = map.cellX(cell);
+        int y = map.cellY(cell);
+        int count = 0;
+        if (parent == -1) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx != 0 || dy != 0) {
+                        count = addJumpPoint(count, jump(x, y, dx, dy, end, distance, krakenPresent));
+                    }
+                }
+            }
+            return count;
+        }
+        int dx = Integer.signum(x - map.cellX(parent));
+        int dy = Integer.signum(y - map.cellY(parent));
+        if (dx != 0 && dy != 0) {
+            count = addJumpPoint(count, jump(x, y, dx, dy, end, distance, krakenPresent));
+            count = addJumpPoint(count, jump(x, y, dx, 0, end, distance, krakenPresent));
+            count = addJumpPoint(count, jump(x, y, 0, dy, end, distance, krakenPresent));
+            if (!passable(x - dx, y, krakenPresent)) {
+                count = addJumpPoint(count, jump(x, y, -dx, dy, end, distance, krakenPresent));
+            }
+            if (!passable(x, y - dy, krakenPresent)) {
+                count = addJumpPoint(count, jump(x, y, dx, -dy, end, distance, krakenPresent));
+            }
+        } else if (dx != 0) {
+            count = addJumpPoint(count, jump(x, y, dx, 0, end, distance, krakenPresent));
+            if (!passable(x, y + 1, krakenPresent)) {
+                count = addJumpPoint(count, jump(x, y, dx, 1, end, distance, krakenPresent));
+            }
+            if (!passable(x, y - 1, krakenPresent)) {
+                count = addJumpPoint(count, jump(x, y, dx, -1, end, distance, krakenPresent));
+            }
+        } else {
+            count = addJumpPoint(count, jump(x, y, 0, dy, end, distance, krakenPresent));
+            if (!passable(x + 1, y, krakenPresent)) {
+                count = addJumpPoint(count, jump(x, y, 1, dy, end, distance, krakenPresent));
+            }
+            if (!passable(x - 1, y, krakenPresent)) {
+                count = addJumpPoint(count, jump(x, y, -1, dy, end, distance, krakenPresent));
+            }
+        }
+        return count;
+    }
+
+    private int addJumpPoint(int count, int jumpPoint) {
+        if (jumpPoint != -1) {
+            jumpPointCells[count++] = jumpPoint;
+        }
+        return count;
+    }
+
+    /**
+     * Moves from a cell in a direction until reaching a jump point: a goal cell, a cell with a forced neighbor,
+     * or, for diagonal moves, a cell from which a straight jump reaches a jump point.
+     * @param x Horizontal coordinate of the cell to move from
+     * @param y Vertical coordinate of the cell to move from
+     * @param dx Horizontal direction, -1, 0 or 1
+     * @param dy Vertical direction, -1, 0 or 1
+     * @param end Goal/end point
+     * @param distance Diagonal distance to the end point, reaching which the algorithm stops
+     * @param krakenPresent Whether to consider the Kraken alive or not
+     * @return Cell index of the jump point, -1 if a blocked cell or the map border is reached first
+     */
+    int jump(int x, int y, int dx, int dy, Point end, int distance, boolean krakenPresent) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!passable(x, y, krakenPresent)) {
+                return -1;
+            }
+            checkKrakenDiscovered(x, y);
+            if (Point.diagonalDistance(x, y, end.x(), end.y(), 1, 1) == distance) {
+                return map.cellIndex(x, y);
+            }
+            if (dx != 0 && dy != 0) {
+                if (passable(x - dx, y + dy, krakenPresent) && !passable(x - dx, y, krakenPresent)
+                        || passable(x + dx, y - dy, krakenPresent) && !passable(x, y - dy, krakenPresent)) {
+                    return map.cellIndex(x, y);
+                }
+                if (jump(x, y, dx, 0, end, distance, krakenPresent) != -1 || jump(x, y, 0, dy, end, distance, krakenPresent) != -1) {
+                    return map.cellIndex(x, y);
+                }
+            } else if (dx != 0) {
+                if (passable(x + dx, y + 1, krakenPresent) && !passable(x, y + 1, krakenPresent)
+                        || passable(x + dx, y - 1, krakenPresent) && !passable(x, y - 1, krakenPresent)) {
+                    return map.cellIndex(x, y);
+                }
+            } else {
+                if (passable(x + 1, y + dy, krakenPresent) && !passable(x + 1, y, krakenPresent)
+                        || passable(x - 1, y + dy, krakenPresent) && !passable(x - 1, y, krakenPresent)) {
+                    return map.cellIndex(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a coordinate is within map bounds and can be moved into
+     * @param x Horizontal coordinate
+     * @param y Vertical coordinate
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return True if the cell can be moved into, false otherwise
+     */
+    boolean passable(int x, int y, boolean krakenPresent) {
+        return map.coordWithinBounds(x, y) && !map.cellBlocked(map.cellIndex(x, y), krakenPresent);
+    }
+
+    /**
+     * Fills in the cells between consecutive jump points of a path
+     * @param jumpPoints Jump points from the start to the end
+     * @return List of all the points of the path
+     */
+    List<Point> expandJumpPoints(List<Point> jumpPoints) {
+        List<Point> path = new ArrayList<>();
+        path.add(jumpPoints.get(0));
+        for (int i = 1; i < jumpPoints.size(); i++) {
+            Point from = jumpPoints.get(i - 1);
+            Point to = jumpPoints.get(i);
+            int dx = Integer.signum(to.x() - from.x());
+            int dy = Integer.signum(to.y() - from.y());
+            int x = from.x();
+            int y = from.y();
+            while (x != to.x() || y != to.y()) {
+                x += dx;
+                y += dy;
+                path.add(map.pointAt(x, y));
+            }
+        }
+        return path;
+    }
+}
+
+/**
+ * Incremental shortest path planner towards a fixed goal cell, using D* Lite.
+ * The search runs backwards from the goal, so g holds the number of moves from each cell to the goal,
+ * and paths from any start are read off by always moving to the neighbor closest to the goal.
+ * When the passability of cells changes, through Map.setCellFlag or setKrakenPresent, only the cells whose distance to the goal is affected are searched again,
+ * and moving the start between queries does not invalidate anything either, so replanning costs are proportional to the change rather than to the map size.
+ * The solvers use the map's planner towards the chest with the Kraken dead, see Map.getChestPlanner, for all the legs and runs on a map,
+ * so they only ever move its start; setKrakenPresent is never called by them, and is there for callers that keep a single planner while the Kraken dies.
+ */
+class IncrementalPlanner implements Map.CellChangeListener {
+    static final int INFINITY = Integer.MAX_VALUE / 4;
+
+    Map map;
+    Point goal;
+    int goalCell;
+    boolean krakenPresent;
+    int cellCount;
+    int[] g;  // Moves to the goal as of the last expansion of the cell
+    int[] rhs;  // Moves to the goal through the best neighbor, equal to g once the cell is consistent
+    long[] key;  // Priority of the cell in the open list, the first key in the upper half and the second one in the lower half
+    int[] heap;  // Open list of inconsistent cells, a binary min-heap
+    int[] heapIndex;  // Position in the heap, -1 if the cell is not in the open list
+    int heapSize = 0;
+    int[] krakenOnlyCells;  // Cells blocked only by the Kraken's perception zone
+    int[] neighborCells = new int[8];  // Buffer for the neighbors the path moves through
+    int[] adjacentCells = new int[8];  // Buffer for the cells whose distance may depend on an updated cell
+    int[] successorCells = new int[8];  // Buffer for the cells an updated cell can move into
+    int keyModifier = 0;  // Sum of the heuristic distances the start has moved by, added to all new keys, so old keys stay valid lower bounds
+    int lastStart = -1;
+    long expandedCells = 0;  // Number of cell expansions since the planner was created
+
+    /**
+     * Creates a planner and registers it as a listener of the map, call close when it is no longer needed
+     * @param map Map to plan on
+     * @param goal Goal point
+     * @param krakenPresent Whether the Kraken is alive or not
+     */
+    IncrementalPlanner(Map map, Point goal, boolean krakenPresent) {
+        this.map = map;
+        this.goal = goal;
+        this.krakenPresent = krakenPresent;
+        goalCell = map.cellIndex(goal.x(), goal.y());
+        cellCount = map.mapSize * map.mapSize;
+        g = new int[cellCount];
+        rhs = new int[cellCount];
+        key = new long[cellCount];
+        heap = new int[cellCount];
+        heapIndex = new int[cellCount];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        Arrays.fill(heapIndex, -1);
+        int krakenOnlyCount = 0;
+        int[] krakenOnly = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (map.cellHasFlag(cell, Map.KRAKEN_FLAG) && !map.cellHasFlag(cell, Map.PERCEPTION_FLAG)) {
+                krakenOnly[krakenOnlyCount++] = cell;
+            }
+        }
+        krakenOnlyCells = Arrays.copyOf(krakenOnly, krakenOnlyCount);
+        rhs[goalCell] = 0;
+        updateCell(goalCell);
+        map.addCellChangeListener(this);
+    }
+
+    /**
+     * Stops listening to the changes of the map
+     */
+    void close() {
+        map.removeCellChangeListener(this);
+    }
+
+    /**
+     * Kills or revives the Kraken, changing the passability of its perception zone
+     * @param krakenPresent Whether the Kraken is alive or not
+     */
+    void setKrakenPresent(boolean krakenPresent) {
+        if (this.krakenPresent == krakenPresent) {
+            return;
+        }
+        this.krakenPresent = krakenPresent;
+        for (int cell : krakenOnlyCells) {
+            cellChanged(cell);
+        }
+    }
+
+    @Override
+    public void cellChanged(int index) {
+        if (map.cellHasFlag(index, Map.KRAKEN_FLAG) && !map.cellHasFlag(index, Map.PERCEPTION_FLAG)) {
+            if (Arrays.binarySearch(krakenOnlyCells, index) < 0) {
+                krakenOnlyCells = Arrays.copyOf(krakenOnlyCells, krakenOnlyCells.length + 1);
+                krakenOnlyCells[krakenOnlyCells.length - 1] = index;
+                Arrays.sort(krakenOnlyCells);
+            }
+        }
+        // Both the cell and the cells that may move into it may now have a different distance to the goal
+        updateCell(index);
+        updatePredecessors(index);
+    }
+
+    /**
+     * Gets the shortest path from a start point to the goal, repairing the search after any changes since the last query
+     * @param start Starting point
+     * @return PathResult containing the path and start, end, goal points, null if the goal cannot be reached
+     */
+    PathResult getPath(Point start) {
+        int startCell = map.cellIndex(start.x(), start.y());
+        if (lastStart != startCell) {
+            if (lastStart != -1) {
+                keyModifier += heuristic(lastStart, startCell);
+            }
+            lastStart = startCell;
+            if (map.cellBlocked(startCell, krakenPresent)) {
+                updateCell(startCell);  // Blocked cells cannot be moved into, but the start is already there
+            }
+        }
+        computeShortestPath(startCell);
+        if (g[startCell] >= INFINITY) {
+            return null;
+        }
+        List<Point> path = new ArrayList<>(g[startCell] + 1);
+        int cell = startCell;
+        path.add(map.cellPoint(cell));
+        while (cell != goalCell) {
+            int next = -1;
+            int neighborCount = map.getNeighborCells(cell, krakenPresent, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                if (next == -1 || g[neighborCells[i]] < g[next]) {
+                    next = neighborCells[i];
+                }
+            }
+            cell = next;
+            path.add(map.cellPoint(cell));
+        }
+        PathResult result = new PathResult();
+        result.start = start;
+        result.goal = goal;
+        result.end = goal;
+        result.path = path;
+        return result;
+    }
+
+    /**
+     * Expands inconsistent cells until the distance of the start cell is known
+     * @param startCell Cell index of the start
+     */
+    void computeShortestPath(int startCell) {
+        while (heapSize > 0 && (key[heap[0]] < calculateKey(startCell, startCell) || rhs[startCell] != g[startCell])) {
+            int cell = heap[0];
+            long oldKey = key[cell];
+            long newKey = calculateKey(cell, startCell);
+            expandedCells++;
+            if (oldKey < newKey) {  // The key was computed before the start moved
+                key[cell] = newKey;
+                siftDown(0);
+            } else if (g[cell] > rhs[cell]) {  // The cell got closer to the goal
+                g[cell] = rhs[cell];
+                removeFromHeap(cell);
+                updatePredecessors(cell);
+            } else {  // The cell got further from the goal, so it and everything that relied on it have to be updated
+                g[cell] = INFINITY;
+                updateCell(cell);
+                updatePredecessors(cell);
+            }
+        }
+    }
+
+    /**
+     * Updates all the cells that may move into a cell
+     * @param cell Cell index
+     */
+    private void updatePredecessors(int cell) {
+        int adjacentCount = getAdjacentCells(cell);
+        for (int i = 0; i < adjacentCount; i++) {
+            updateCell(adjacentCells[i]);
+        }
+    }
+
+    /**
+     * Recomputes the best distance of a cell through its neighbors and puts it into the open list if it is inconsistent
+     * @param cell Cell index
+     */
+    void updateCell(int cell) {
+        if (cell != goalCell) {
+            int best = INFINITY;
+            if (!map.cellBlocked(cell, krakenPresent) || cell == lastStart) {
+                int successorCount = map.getNeighborCells(cell, krakenPresent, successorCells);
+                for (int i = 0; i < successorCount; i++) {
+                    best = Math.min(best, g[successorCells[i]] + 1);
+                }
+            }
+            rhs[cell] = best;
+        }
+        if (g[cell] != rhs[cell]) {
+            key[cell] = calculateKey(cell, lastStart);
+            if (heapIndex[cell] == -1) {
+                heapIndex[cell] = heapSize;
+                heap[heapSize++] = cell;
+                siftUp(heapIndex[cell]);
+            } else {
+                siftUp(heapIndex[cell]);
+                siftDown(heapIndex[cell]);
+            }
+        } else {
+            removeFromHeap(cell);
+        }
+    }
+
+    /**
+     * Writes all the in-bounds neighbors of a cell into adjacentCells, whether they are blocked or not
+     * @param cell Cell index
+     * @return Number of neighbors written
+     */
+    private int getAdjacentCells(int cell) {
+        int x = map.cellX(cell);
+        int y = map.cellY(cell);
+        int count = 0;
+        for (int i = y - 1; i <= y + 1; i++) {
+            for (int j = x - 1; j <= x + 1; j++) {
+                if ((i != y || j != x) && map.coordWithinBounds(j, i)) {
+                    adjacentCells[count++] = map.cellIndex(j, i);
+                }
+            }
+        }
+        return count;
+    }
+
+    private long calculateKey(int cell, int startCell) {
+        int distance = Math.min(g[cell], rhs[cell]);
+        int first = distance >= INFINITY ? INFINITY : distance + (startCell == -1 ? 0 : heuristic(startCell, cell)) + keyModifier;
+        return (long)first << 32 | distance;
+    }
+
+    private int heuristic(int a, int b) {
+        return Point.diagonalDistance(map.cellX(a), map.cellY(a), map.cellX(b), map.cellY(b), 1, 1);
+    }
+
+    private void removeFromHeap(int cell) {
+        int i = heapIndex[cell];
+        if (i == -1) {
+            return;
+        }
+        heapIndex[cell] = -1;
+        heapSize--;
+        if (i < heapSize) {
+            int moved = heap[heapSize];
+            heap[i] = moved;
+            heapIndex[moved] = i;
+            siftUp(i);
+            siftDown(heapIndex[moved]);
+        }
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        while (i > 0) {
+            int parentI = (i - 1) / 2;
+            int parentCell = heap[parentI];
+            if (key[parentCell] <= key[cell]) {
+                break;
+            }
+            heap[i] = parentCell;
+            heapIndex[parentCell] = i;
+            i = parentI;
+        }
+        heap[i] = cell;
+        heapIndex[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        while (true) {
+            int childI = 2 * i + 1;
+            if (childI >= heapSize) {
+                break;
+            }
+            if (childI + 1 < heapSize && key[heap[childI + 1]] < key[heap[childI]]) {
+                childI++;
+            }
+            if (key[cell] <= key[heap[childI]]) {
+                break;
+            }
+            heap[i] = heap[childI];
+            heapIndex[heap[i]] = i;
+            i = childI;
+        }
+        heap[i] = cell;
+        heapIndex[cell] = i;
+    }
+}
+
+/**
+ * A set of visited map cells along the current search path, stored as a bitset.
+ * Cells are added when the search enters them and removed when it backtracks out of them,
+ * so that we don't have to copy the visited nodes each time, and checking a cell takes constant time.
+ */
+class VisitSet {
+    long[] bits;
+    VisitSet(int cellCount) {
+        bits = new long[(cellCount + 63) / 64];
+    }
+
+    /**
+     * Check if cell is in the set
+     * @param cell Cell index
+     * @return True if cell is in set, false otherwise
+     */
+    public boolean contains(int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Adds a cell to the set
+     * @param cell Cell index
+     * @return True if the cell was added, false if it was already in the set
+     */
+    public boolean add(int cell) {
+        long mask = 1L << cell;
+        if ((bits[cell >>> 6] & mask) != 0) {
+            return false;
+        }
+        bits[cell >>> 6] |= mask;
+        return true;
+    }
+
+    /**
+     * Removes a cell from the set
+     * @param cell Cell index
+     */
+    public void remove(int cell) {
+        bits[cell >>> 6] &= ~(1L << cell);
+    }
+}
+
+/**
+ * Transposition table of the backtracking search, which stores the earliest iteration at which each game state has been reached.
+ * A game state is packed into a key from its cell and its flags, and the table is open-addressed with linear probing over a long array.
+ * Each slot holds the key plus one in its upper bits and the iteration in its lower bits, so that an empty slot is 0.
+ */
+class TranspositionTable {
+    static final int ITERATION_BITS = 24;  // Iterations never exceed 3 * maxSize, so they always fit
+    static final long ITERATION_MASK = (1L << ITERATION_BITS) - 1;
+    static final int FLAG_BITS = 3;
+    long[] slots;
+    int size = 0;
+
+    /**
+     * @param expectedStates Number of states the table should hold without growing
+     */
+    TranspositionTable(int expectedStates) {
+        int capacity = 16;
+        while (capacity < expectedStates * 2) {
+            capacity *= 2;
+        }
+        slots = new long[capacity];
+    }
+
+    /**
+     * Packs a game state into a key
+     * @param cell Cell index of the state
+     * @param flags Flags of the state
+     * @return Key of the state
+     */
+    static long packState(int cell, byte flags) {
+        return (long)cell << FLAG_BITS | flags;
+    }
+
+    /**
+     * Records that a game state has been reached at an iteration, unless it has already been reached at an earlier iteration
+     * @param key Key of the state
+     * @param iteration Iteration at which the state has been reached
+     * @return False if the state has already been reached at an earlier iteration, true otherwise
+     */
+    boolean reach(long key, int iteration) {
+        long stored = key + 1;
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) {
+            if (slots[slot] >>> ITERATION_BITS == stored) {
+                if (iteration > (slots[slot] & ITERATION_MASK)) {
+                    return false;
+                }
+                slots[slot] = stored << ITERATION_BITS | iteration;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = stored << ITERATION_BITS | iteration;
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldSlots = slots;
+        slots = new long[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (long entry : oldSlots) {
+            if (entry != 0) {
+                int slot = hash((entry >>> ITERATION_BITS) - 1) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
+
+/**
+ * Class for the Backtracking Algorithm
+ */
+class BacktrackingAlgorithm extends Algorithm {
+    static final byte TORTUGA_VISITED = 1;
+    static final byte KRAKEN_ALIVE = 2;
+    static final byte KRAKEN_DISCOVERED = 4;
+
+    /**
+     * Depth-first search over an explicit stack of game states, so it does not recurse and does not allocate per state.
+     * The search only holds the path it is currently exploring, while the best path and the shortest iteration tables belong to the algorithm,
+     * so that several searches can share them.
+     */
+    class BacktrackingSearch {
+        int[] neighborCells = new int[8];  // Buffer for the neighbor cells of the state being explored
+        SearchCounters searchCounters = counters == null ? null : new SearchCounters();  // Added to the algorithm's counters once the search is done
+        // Cells of the path currently being explored, separated into two sets, because after visiting Tortuga we can move into previously visited cells
+        VisitSet visitedBeforeTortuga;
+        VisitSet visitedAfterTortuga;
+
+        // Stack of the game states along the path currently being explored, a state at depth d is stored at index d of every array
+        int[] stateCell;
+        int[] stateIteration;
+        byte[] stateFlags;  // TORTUGA_VISITED, KRAKEN_ALIVE and KRAKEN_DISCOVERED
+        boolean[] stateAddedToVisited;  // Whether the state added its cell to a visited set, so it has to be removed when backtracking
+        int[] stateNextStates;  // Cells of the possible next states of the state at depth d, at indices 8 * d to 8 * d + 7, best first
+        int[] stateNextStateCount;
+        int[] stateNextStateCursor;  // Index of the next state to explore
+        // Fixed-size binary heap which orders the next states, with sort keys stored next to the cells
+        int[] nextStateHeap = new int[8];
+        int[] nextStateDiagonal = new int[8];
+        int[] nextStateManhattan = new int[8];
+
+        BacktrackingSearch() {
+            int cellCount = map.mapSize * map.mapSize;
+            visitedBeforeTortuga = new VisitSet(cellCount);
+            visitedAfterTortuga = new VisitSet(cellCount);
+            int maxDepth = iterationLimit + 1;  // States up to iteration iterationLimit + 1 are entered, iterations start at 1
+            stateCell = new int[maxDepth];
+            stateIteration = new int[maxDepth];
+            stateFlags = new byte[maxDepth];
+            stateAddedToVisited = new boolean[maxDepth];
+            stateNextStates = new int[maxDepth * 8];
+            stateNextStateCount = new int[maxDepth];
+            stateNextStateCursor = new int[maxDepth];
+        }
+
+        /**
+         * Explores all the future game states of the last state of a path
+         * @param path Cells of the path, starting with the captain location
+         * @param pathLength Number of cells in the path
+         */
+        void explore(int[] path, int pathLength) {
+            int depth = enterPath(path, pathLength);
+            if (depth != pathLength - 1) {  // The path was cut off before its last state
+                leaveAll(depth);
+                return;
+            }
+            while (depth >= 0) {
+                if (stateNextStateCursor[depth] < stateNextStateCount[depth]) {
+                    int next = depth + 1;
+                    stateCell[next] = stateNextStates[depth * 8 + stateNextStateCursor[depth]++];
+                    stateIteration[next] = stateIteration[depth] + 1;
+                    stateFlags[next] = stateFlags[depth];
+                    if (enterGameState(next)) {
+                        depth = next;
+                    }
+                } else {
+                    leaveGameState(depth);
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * Puts the states of a path on the stack, without the other next states of all but the last state
+         * @param path Cells of the path, starting with the captain location
+         * @param pathLength Number of cells in the path
+         * @return Depth of the last state that was entered, -1 if the first state was cut off
+         */
+        int enterPath(int[] path, int pathLength) {
+            for (int depth = 0; depth < pathLength; depth++) {
+                stateCell[depth] = path[depth];
+                stateIteration[depth] = depth + 1;
+                stateFlags[depth] = depth == 0 ? KRAKEN_ALIVE : stateFlags[depth - 1];
+                if (!enterGameState(depth)) {
+                    return depth - 1;
+                }
+                if (depth < pathLength - 1) {
+                    stateNextStateCursor[depth] = stateNextStateCount[depth];  // Only the given path is explored
+                }
+            }
+            return pathLength - 1;
+        }
+
+        /**
+         * Takes all the states off the stack
+         * @param depth Depth of the last state on the stack
+         */
+        void leaveAll(int depth) {
+            for (; depth >= 0; depth--) {
+                leaveGameState(depth);
+            }
+        }
+
+        /**
+         * Processes a game state which has just been put on the stack and orders its possible next states.
+         * If the state is the exit, its path is offered as the shortest path.
+         * @param depth Depth of the game state, with its cell, iteration and the flags of the previous state already set
+         * @return True if the state has to stay on the stack until its next states are explored, false if it was cut off
+         */
+        boolean enterGameState(int depth) {
+            int curCell = stateCell[depth];
+            int iteration = stateIteration[depth];
+            byte flags = stateFlags[depth];
+            if (searchCounters != null) {
+                searchCounters.recordRecursionDepth(depth + 1);
+            }
+            if (curCell == map.cellIndex(map.chestLocation.x(), map.chestLocation.y())) {
+                // We have discovered the exit
+                offerPath(stateCell, depth + 1);
+                return false;
+            }
+
+            if (iteration >= getShortestPathLength()) {
+                countPrune(SearchCounters.PRUNE_BOUND);
+                return false;  // Our iteration is already the length of the shortest path, and we have not found the exit yet, therefore, this is definitely not the shortest path
+            }
+            if (iteration > iterationLimit) {  // ENOUGH
+                countPrune(SearchCounters.PRUNE_ITERATION_LIMIT);
+                return false;
+            }
+
+            Point curLoc = map.cellPoint(curCell);
+            // We found Tortuga
+            if (curLoc.equals(map.tortugaLocation)) {
+                flags |= TORTUGA_VISITED;  // Nothing after Tortuga has been visited yet, as cells are removed from the sets when backtracking
+            }
+            boolean tortugaVisited = (flags & TORTUGA_VISITED) != 0;
+            if (perceptionType == 1 && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
+                flags |= KRAKEN_DISCOVERED;
+            }
+            if (tortugaVisited && curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1) {
+                flags &= ~KRAKEN_ALIVE;
+            }
+            stateFlags[depth] = flags;
+
+            // We make sure that we don't go to a game state which we know we can get to in a shorter way already
+            if (!reachState(curCell, flags, iteration)) {
+                countPrune(SearchCounters.PRUNE_TRANSPOSITION);
+                return false;
+            }
+            if (searchCounters != null) {
+                searchCounters.nodesExpanded++;
+            }
+
+            VisitSet visited = tortugaVisited ? visitedAfterTortuga : visitedBeforeTortuga;
+            stateAddedToVisited[depth] = visited.add(curCell);  // Removed again once all the future states have been explored
+
+            // Next states are ordered by diagonal distance to the goal first, then by manhattan distance if diagonal distance is equal
+            Point goal = tortugaVisited ? map.chestLocation : map.tortugaLocation;
+            int shortestPathLength = getShortestPathLength();
+            int nextStatesStart = depth * 8;
+            int nextStateCount = 0;
+            int neighborCount = map.getNeighborCells(curCell, (flags & KRAKEN_ALIVE) != 0, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                int neighborCell = neighborCells[i];
+                if (visited.contains(neighborCell)) {
+                    countPrune(SearchCounters.PRUNE_VISITED);
+                    continue;  // Already visited this point, don't go there again
+                }
+                int remaining = distanceFields.chestDistanceLowerBound(neighborCell, tortugaVisited, (flags & KRAKEN_ALIVE) != 0);
+                if (remaining == Integer.MAX_VALUE) {
+                    countPrune(SearchCounters.PRUNE_UNREACHABLE);
+                    continue;  // The chest cannot be reached from this point at all
+                }
+                if (iteration + 1 + remaining >= shortestPathLength || iteration + remaining > iterationLimit) {
+                    countPrune(iteration + 1 + remaining >= shortestPathLength ? SearchCounters.PRUNE_BOUND : SearchCounters.PRUNE_ITERATION_LIMIT);
+                    continue;  // Even the shortest way to the chest from this point would not be shorter than the shortest path, or would go past the iteration limit
+                }
+                int neighborX = map.cellX(neighborCell);
+                int neighborY = map.cellY(neighborCell);
+                int diagonal = goal.diagonalDistance(neighborX, neighborY, 1, 1);
+                int manhattan = Point.manhattanDistance(neighborX, neighborY, goal.x(), goal.y(), 1);
+                // Sift up, moving parents down until the new state is not better than its parent
+                int k = nextStateCount++;
+                while (k > 0) {
+                    int parent = (k - 1) >>> 1;
+                    if (compareNextStates(diagonal, manhattan, parent) >= 0) {
+                        break;
+                    }
+                    setNextStateHeapSlot(k, nextStateHeap[parent], nextStateDiagonal[parent], nextStateManhattan[parent]);
+                    k = parent;
+                }
+                setNextStateHeapSlot(k, neighborCell, diagonal, manhattan);
+            }
+            // Drain the heap best first into the next states of this state
+            for (int i = 0; i < nextStateCount; i++) {
+                stateNextStates[nextStatesStart + i] = nextStateHeap[0];
+                int size = nextStateCount - i - 1;
+                int lastCell = nextStateHeap[size];
+                int lastDiagonal = nextStateDiagonal[size];
+                int lastManhattan = nextStateManhattan[size];
+                // Sift down the last state from the root, moving the better child up until the last state is not worse than it
+                int k = 0;
+                while (k < size >>> 1) {
+                    int child = 2 * k + 1;
+                    if (child + 1 < size && compareNextStates(nextStateDiagonal[child], nextStateManhattan[child], child + 1) > 0) {
+                        child++;
+                    }
+                    if (compareNextStates(lastDiagonal, lastManhattan, child) <= 0) {
+                        break;
+                    }
+                    setNextStateHeapSlot(k, nextStateHeap[child], nextStateDiagonal[child], nextStateManhattan[child]);
+                    k = child;
+                }
+                if (size > 0) {
+                    setNextStateHeapSlot(k, lastCell, lastDiagonal, lastManhattan);
+                }
+            }
+            stateNextStateCount[depth] = nextStateCount;
+            stateNextStateCursor[depth] = 0;
+            if (searchCounters != null) {
+                searchCounters.nodesGenerated += nextStateCount;
+            }
+            return true;
+        }
+
+        private void countPrune(int rule) {
+            if (searchCounters != null) {
+                searchCounters.pruneHits[rule]++;
+            }
+        }
+
+        /**
+         * Compares a next state to the one in a slot of the next state heap, first by diagonal distance to the goal, then by manhattan distance.
+         * The heap is sifted exactly like a PriorityQueue, so that next states with equal distances are explored in the same order as they always were.
+         * @param diagonal Diagonal distance of the next state to the goal
+         * @param manhattan Manhattan distance of the next state to the goal
+         * @param slot Heap slot of the other next state
+         * @return Negative if the next state is better, zero if equal, positive if worse
+         */
+        private int compareNextStates(int diagonal, int manhattan, int slot) {
+            if (diagonal != nextStateDiagonal[slot]) {
+                return diagonal < nextStateDiagonal[slot] ? -1 : 1;
+            }
+            return Integer.compare(manhattan, nextStateManhattan[slot]);
+        }
+
+        private void setNextStateHeapSlot(int slot, int cell, int diagonal, int manhattan) {
+            nextStateHeap[slot] = cell;
+            nextStateDiagonal[slot] = diagonal;
+            nextStateManhattan[slot] = manhattan;
+        }
+
+        /**
+         * Takes a game state whose next states have all been explored off the stack
+         * @param depth Depth of the game state
+         */
+        void leaveGameState(int depth) {
+            if (stateAddedToVisited[depth]) {
+                VisitSet visited = (stateFlags[depth] & TORTUGA_VISITED) != 0 ? visitedAfterTortuga : visitedBeforeTortuga;
+                visited.remove(stateCell[depth]);
+            }
+        }
+    }
+
+    PathResult shortestPath = null;
+    int iterationLimit;  // States deeper than this are not explored
+    DistanceFields distanceFields;  // Lower bounds for the number of moves left until reaching the chest
+    TranspositionTable shortestIterations;  // Shortest known iteration at which each game state was reached
+
     BacktrackingAlgorithm(Map map, int perceptionType) {
         super(map, perceptionType);
-        for (int i = 0; i < map.mapSize; i++) {
-            List<Integer> list1 = new ArrayList<Integer>();
-            List<Integer> list2 = new ArrayList<Integer>();
-            for (int j = 0; j < map.mapSize; j++) {
-                list1.add(-1);
-                list2.add(-1);
+        // Enough for three straight legs (to Tortuga, to the Kraken and to the chest) of at most mapSize - 1 moves each, which is 25 on a 9x9 map
+        iterationLimit = 3 * (map.mapSize - 1) + 1;
+    }
+
+    @Override
+    boolean findsShortestPath() {
+        return true;
+    }
+
+    /**
+     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest using backtracking with heuristics, and records a BacktrackingSolveEvent.
+     * @return PathResult that contains the list of points that are part of the path
+     */
+    @Override
+    protected PathResult getPathBody() {
+        BacktrackingSolveEvent event = new BacktrackingSolveEvent();
+        event.begin();
+        PathResult result = searchPath();
+        if (event.shouldCommit()) {
+            event.fingerprint = map.getFingerprint();
+            event.perceptionType = perceptionType;
+            event.parallel = this instanceof ParallelBacktrackingAlgorithm;
+            event.pathLength = result == null ? 0 : result.path.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Searches for the shortest path from Jack Sparrow to the Dead Man's Chest
+     * @return PathResult that contains the list of points that are part of the path, null if there is none
+     */
+    protected PathResult searchPath() {
+        shortestPath = null;
+        shortestIterations = new TranspositionTable(map.mapSize * map.mapSize);
+        distanceFields = new DistanceFields(map);
+        BacktrackingSearch search = new BacktrackingSearch();
+        search.explore(new int[]{map.cellIndex(map.captainLocation.x(), map.captainLocation.y())}, 1);
+        if (counters != null) {
+            counters.subSearches++;
+            counters.add(search.searchCounters);
+        }
+        return shortestPath;
+    }
+
+    /**
+     * Gets the length of the shortest path found so far
+     * @return Number of points in the shortest path, Integer.MAX_VALUE if no path has been found yet
+     */
+    int getShortestPathLength() {
+        return shortestPath == null ? Integer.MAX_VALUE : shortestPath.path.size();
+    }
+
+    /**
+     * Makes a path from the captain to the chest the shortest path, if it is shorter than the current one
+     * @param cells Cells of the path
+     * @param length Number of cells in the path
+     */
+    void offerPath(int[] cells, int length) {
+        if (length < getShortestPathLength()) {
+            shortestPath = makePathResult(cells, length);
+        }
+    }
+
+    /**
+     * Makes a path result from the cells of a path from the captain to the chest
+     * @param cells Cells of the path
+     * @param length Number of cells in the path
+     * @return PathResult of the path
+     */
+    PathResult makePathResult(int[] cells, int length) {
+        PathResult result = new PathResult();
+        result.start = map.captainLocation;
+        result.goal = map.chestLocation;
+        result.end = map.chestLocation;
+        List<Point> outputPath = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            outputPath.add(map.cellPoint(cells[i]));
+        }
+        result.path = outputPath;
+        return result;
+    }
+
+    /**
+     * Records that a game state has been reached at an iteration, unless it is already known to be reachable at an earlier iteration.
+     * Game states are told apart by their cell and all their flags, so a state with the Kraken alive never prunes one with the Kraken dead.
+     * @param cell Cell index
+     * @param flags Flags of the game state
+     * @param iteration Iteration at which the game state has been reached
+     * @return False if the game state is known to be reachable at an earlier iteration, true otherwise
+     */
+    boolean reachState(int cell, byte flags, int iteration) {
+        return shortestIterations.reach(TranspositionTable.packState(cell, flags), iteration);
+    }
+}
+
+/**
+ * Class for the Backtracking Algorithm which explores the top levels of the search tree in parallel.
+ * Every path of splitDepth states becomes a separate fork/join task, and all the tasks share the length of the shortest path found so far
+ * and the shortest iterations of the game states, so that a path found by one task immediately prunes the others.
+ * Paths of equal length may be found in a different order than by the sequential algorithm, so the returned path may differ, but not its length.
+ */
+class ParallelBacktrackingAlgorithm extends BacktrackingAlgorithm {
+    /**
+     * Task which explores all the future game states of the last state of a path
+     */
+    @SuppressWarnings("serial")  // Tasks are never serialized
+    class BacktrackingTask extends RecursiveAction {
+        int[] path;
+        BacktrackingTask(int[] path) {
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            BacktrackingSearch search = searches.get();
+            if (path.length >= splitDepth) {
+                search.explore(path, path.length);
+                return;
+            }
+            int depth = search.enterPath(path, path.length);
+            List<BacktrackingTask> subtasks = new ArrayList<>();
+            if (depth == path.length - 1) {
+                for (int i = 0; i < search.stateNextStateCount[depth]; i++) {
+                    int[] nextPath = Arrays.copyOf(path, path.length + 1);
+                    nextPath[path.length] = search.stateNextStates[depth * 8 + i];
+                    subtasks.add(new BacktrackingTask(nextPath));
+                }
+            }
+            search.leaveAll(depth);  // The search of this thread may be used by the subtasks while this task waits for them
+            invokeAll(subtasks);
+        }
+    }
+    static final int MAX_ATOMIC_STATES = 1 << 24;  // Larger maps are solved sequentially, as the atomic table takes 4 bytes per game state
+    ForkJoinPool pool;
+    int splitDepth;
+    // Searches are reused by all the tasks running on a thread, as a task only uses its search before forking, and are made anew for each solve
+    ThreadLocal<BacktrackingSearch> searches;
+    List<BacktrackingSearch> allSearches = new ArrayList<>();  // Every search made by the threads during the current solve, so that their counters can be added up
+    AtomicInteger shortestPathLength = new AtomicInteger(Integer.MAX_VALUE);
+    AtomicIntegerArray atomicShortestIterations;  // Indexed directly by the packed game state, as an atomic array cannot be open-addressed and resized, null when solving sequentially
+
+    /**
+     * @param map Map to solve
+     * @param perceptionType Perception type of the captain
+     * @param pool Pool of the threads exploring the search tree, which may be shared with other solves
+     * @param splitDepth Depth up to which the paths are split into separate tasks, at most 8 ^ (splitDepth - 1) tasks are made
+     */
+    ParallelBacktrackingAlgorithm(Map map, int perceptionType, ForkJoinPool pool, int splitDepth) {
+        super(map, perceptionType);
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+    ParallelBacktrackingAlgorithm(Map map, int perceptionType) {
+        this(map, perceptionType, ForkJoinPool.commonPool(), 4);
+    }
+
+    private BacktrackingSearch makeSearch() {
+        BacktrackingSearch search = new BacktrackingSearch();
+        synchronized (allSearches) {
+            allSearches.add(search);
+        }
+        return search;
+    }
+
+    /**
+     * Searches for the shortest path with the tasks of the pool.
+     * Maps with more than MAX_ATOMIC_STATES game states are solved sequentially instead, with the growable transposition table.
+     * @return PathResult that contains the list of points that are part of the path, null if there is none
+     */
+    @Override
+    protected PathResult searchPath() {
+        shortestPath = null;
+        shortestPathLength.set(Integer.MAX_VALUE);
+        long stateCount = (long)map.mapSize * map.mapSize << TranspositionTable.FLAG_BITS;
+        if (stateCount > MAX_ATOMIC_STATES) {
+            atomicShortestIterations = null;
+            return super.searchPath();
+        }
+        atomicShortestIterations = new AtomicIntegerArray((int)stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            atomicShortestIterations.set(i, -1);
+        }
+        distanceFields = new DistanceFields(map);
+        searches = ThreadLocal.withInitial(this::makeSearch);
+        synchronized (allSearches) {
+            allSearches.clear();
+        }
+        pool.invoke(new BacktrackingTask(new int[]{map.cellIndex(map.captainLocation.x(), map.captainLocation.y())}));
+        if (counters != null) {
+            counters.subSearches++;
+            synchronized (allSearches) {
+                for (BacktrackingSearch search : allSearches) {
+                    counters.add(search.searchCounters);
+                }
+            }
+        }
+        return shortestPath;
+    }
+
+    @Override
+    int getShortestPathLength() {
+        return shortestPathLength.get();
+    }
+
+    @Override
+    synchronized void offerPath(int[] cells, int length) {
+        if (length < shortestPathLength.get()) {
+            shortestPath = makePathResult(cells, length);
+            shortestPathLength.set(length);
+        }
+    }
+
+    @Override
+    boolean reachState(int cell, byte flags, int iteration) {
+        if (atomicShortestIterations == null) {
+            return super.reachState(cell, flags, iteration);
+        }
+        int state = (int)TranspositionTable.packState(cell, flags);
+        while (true) {
+            int current = atomicShortestIterations.get(state);
+            if (current != -1 && iteration > current) {
+                return false;
+            }
+            if (current == iteration || atomicShortestIterations.compareAndSet(state, current, iteration)) {
+                return true;
             }
-            shortestIterationBeforeTortuga.add(list1);
-            shortestIterationAfterTortuga.add(list2);
         }
     }
+}
+
+/**
+ * Streaming statistics of algorithm runtimes, which take the same memory however many runs are added, and can be merged across threads.
+ * The mean and variance are kept with Welford's algorithm, the quantiles with a log-linear histogram in the style of HdrHistogram,
+ * and the mode with a histogram of fixed-width buckets.
+ */
+class RuntimeStatistics {
+    static final int SUB_BUCKET_BITS = 7;  // Quantile buckets are at most 1 / 64 of their value wide
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int QUANTILE_BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    static final int MODE_BUCKET_NANOSECONDS = 1000;
+    static final int MODE_BUCKET_COUNT = 16384;  // Runtimes of 16.384 ms and more are not considered for the mode
+
+    long count = 0;
+    double mean = 0;
+    double squaredMeanDifferenceSum = 0;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    long[] quantileBuckets = new long[QUANTILE_BUCKET_COUNT];  // Counts of runtimes in nanoseconds, exact below SUB_BUCKET_COUNT
+    int[] modeBuckets = new int[MODE_BUCKET_COUNT];
 
     /**
-     * Gets the shortest path from Jack Sparrow to the Dead Man's Chest using backtracking with heuristics.
-     * @return PathResult that contains the list of points that are part of the path
+     * Adds a runtime
+     * @param milliseconds Runtime in milliseconds
      */
-    @Override
-    protected PathResult getPathBody() {
-        GameState initialState = new GameState(map.captainLocation, map.tortugaLocation);
-        exploreFutureGameStates(initialState);
-        return shortestPath;
+    synchronized void add(double milliseconds) {
+        count++;
+        double delta = milliseconds - mean;
+        mean += delta / count;
+        squaredMeanDifferenceSum += delta * (milliseconds - mean);
+        min = Math.min(min, milliseconds);
+        max = Math.max(max, milliseconds);
+        long nanoseconds = Math.max(0, Math.round(milliseconds * 1000000));
+        quantileBuckets[getQuantileBucket(nanoseconds)]++;
+        if (nanoseconds / MODE_BUCKET_NANOSECONDS < MODE_BUCKET_COUNT) {
+            modeBuckets[(int)(nanoseconds / MODE_BUCKET_NANOSECONDS)]++;
+        }
     }
 
     /**
-     * Explores many possible future game states to get the shortest path, and puts the path into shortestPath
-     * @param state Game state to explore future game states of
+     * Adds all the runtimes of other statistics to these, as if they had been added one by one
+     * @param other Statistics to add
      */
-    void exploreFutureGameStates(GameState state) {
-        if (state.curLoc.equals(map.chestLocation)) {
-            // We have discovered the exit
-            PathResult result = new PathResult();
-            result.start = map.captainLocation;
-            result.goal = map.chestLocation;
-            result.end = map.chestLocation;
-            List<Point> outputPath = new ArrayList<>();
-            GameState curState = state;
-            while (curState != null) {
-                outputPath.add(0, curState.curLoc);
-                curState = curState.parent;
+    void merge(RuntimeStatistics other) {
+        long otherCount;
+        double otherMean;
+        double otherSquaredMeanDifferenceSum;
+        double otherMin;
+        double otherMax;
+        long[] otherQuantileBuckets;
+        int[] otherModeBuckets;
+        synchronized (other) {  // Copied first, so that the two locks are never held at once
+            otherCount = other.count;
+            otherMean = other.mean;
+            otherSquaredMeanDifferenceSum = other.squaredMeanDifferenceSum;
+            otherMin = other.min;
+            otherMax = other.max;
+            otherQuantileBuckets = other.quantileBuckets.clone();
+            otherModeBuckets = other.modeBuckets.clone();
+        }
+        if (otherCount == 0) {
+            return;
+        }
+        synchronized (this) {
+            long totalCount = count + otherCount;
+            double delta = otherMean - mean;
+            mean += delta * otherCount / totalCount;
+            squaredMeanDifferenceSum += otherSquaredMeanDifferenceSum + delta * delta * count * otherCount / totalCount;
+            count = totalCount;
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+            for (int i = 0; i < QUANTILE_BUCKET_COUNT; i++) {
+                quantileBuckets[i] += otherQuantileBuckets[i];
             }
-            result.path = outputPath;
-            if (shortestPath == null || result.path.size() < shortestPath.path.size()) {
-                shortestPath = result;
+            for (int i = 0; i < MODE_BUCKET_COUNT; i++) {
+                modeBuckets[i] += otherModeBuckets[i];
             }
-            return;
         }
+    }
+
+    synchronized double getStandardDeviation() {
+        return count < 2 ? 0 : Math.sqrt(squaredMeanDifferenceSum / (count - 1));
+    }
 
-        if (shortestPath != null && state.iteration >= shortestPath.path.size()) {
-            return;  // Our iteration is already the length of the shortest path, and we have not found the exit yet, therefore, this is definitely not the shortest path
+    /**
+     * Gets a quantile of the runtimes, accurate to the width of its bucket
+     * @param quantile Quantile between 0 and 1, 0.5 for the median
+     * @return Runtime in milliseconds, NaN if there are no runtimes
+     */
+    synchronized double getQuantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
         }
-        if (state.iteration > 25) {  // ENOUGH
-            return;
+        long rank = Math.max(1, (long)Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < QUANTILE_BUCKET_COUNT; i++) {
+            seen += quantileBuckets[i];
+            if (seen >= rank) {
+                int shift = i >>> SUB_BUCKET_BITS;
+                long lowest = (long)(i & (SUB_BUCKET_COUNT - 1)) << shift;
+                double middle = lowest + ((1L << shift) - 1) / 2.0;
+                return Math.min(max, Math.max(min, middle / 1000000));
+            }
         }
+        return max;
+    }
 
-        // We found Tortuga
-        if (state.curLoc.equals(map.tortugaLocation)) {
-            state.tortugaVisited = true;
-            state.visitedAfterTortuga = new VisitTree(state.curLoc);
-            state.goal = map.chestLocation;
+    /**
+     * Gets a histogram of the runtimes with a bucket for each power of two of nanoseconds
+     * @return Counts of runtimes, where index k counts runtimes from 2^k up to 2^(k+1) nanoseconds, and index 0 also counts zero runtimes
+     */
+    synchronized long[] getLogHistogram() {
+        long[] histogram = new long[64];
+        for (int i = 0; i < QUANTILE_BUCKET_COUNT; i++) {
+            if (quantileBuckets[i] != 0) {
+                long lowest = (long)(i & (SUB_BUCKET_COUNT - 1)) << (i >>> SUB_BUCKET_BITS);
+                histogram[lowest == 0 ? 0 : 63 - Long.numberOfLeadingZeros(lowest)] += quantileBuckets[i];
+            }
         }
+        return histogram;
+    }
 
-        // In this block, we make sure that we don't go to a cell which we know we can get to in a shorter way already
-        int curShortBeforeTortugaIter = shortestIterationBeforeTortuga.get(state.curLoc.y).get(state.curLoc.x);
-        int curShortAfterTortugaIter = shortestIterationAfterTortuga.get(state.curLoc.y).get(state.curLoc.x);
-        if (!state.tortugaVisited && curShortBeforeTortugaIter != -1 && state.iteration > curShortBeforeTortugaIter ||
-                state.tortugaVisited && curShortAfterTortugaIter != -1 && state.iteration > curShortAfterTortugaIter) {
-            return;
-        } else {
-            if (!state.tortugaVisited) {
-                shortestIterationBeforeTortuga.get(state.curLoc.y).set(state.curLoc.x, state.iteration);
-            } else {
-                shortestIterationAfterTortuga.get(state.curLoc.y).set(state.curLoc.x, state.iteration);
+    /**
+     * Gets the mode bucket, the fixed-width bucket with the most runtimes
+     * @return Index of the bucket, -1 if no runtime falls into any bucket
+     */
+    synchronized int getModeBucket() {
+        int best = -1;
+        for (int i = 0; i < MODE_BUCKET_COUNT; i++) {
+            if (modeBuckets[i] > 0 && (best == -1 || modeBuckets[i] > modeBuckets[best])) {
+                best = i;
             }
         }
+        return best;
+    }
 
-        if (!state.tortugaVisited) {  // We separate the visited cells into two sets, because after visiting Tortuga we can move into previously visited cells
-            if (!state.visitedBeforeTortuga.isInTree(state.curLoc))
-                state.visitedBeforeTortuga = new VisitTree(state.curLoc, state.visitedBeforeTortuga);
-        } else {
-            if (!state.visitedAfterTortuga.isInTree(state.curLoc))
-                state.visitedAfterTortuga = new VisitTree(state.curLoc, state.visitedAfterTortuga);
+    /**
+     * Gets the quantile bucket of a runtime: runtimes below SUB_BUCKET_COUNT nanoseconds get a bucket each,
+     * and above that, each power of two is split into SUB_BUCKET_COUNT / 2 buckets
+     * @param nanoseconds Runtime in nanoseconds
+     * @return Index of the bucket
+     */
+    static int getQuantileBucket(long nanoseconds) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(nanoseconds);
+        if (magnitude <= SUB_BUCKET_BITS) {
+            return (int)nanoseconds;
         }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int)(nanoseconds >>> shift);
+    }
+}
 
+/**
+ * Fork/join task which runs an action on a range of indices, splitting itself in half until the range is small enough
+ */
+@SuppressWarnings("serial")  // Tasks are never serialized
+class RangeTask extends RecursiveAction {
+    /**
+     * Action run on a range that is not split any further
+     */
+    interface RangeAction {
+        /**
+         * @param from First index of the range
+         * @param to Index after the last one of the range
+         */
+        void run(int from, int to);
+    }
+    RangeAction action;
+    int threshold;
+    int from;
+    int to;
 
-        if (perceptionType == 1 && state.curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1 || perceptionType == 2 && state.curLoc.manhattanDistance(map.krakenLocation, 1) <= 2) {
-            state.krakenDiscovered = true;
-        }
-        // Commenting this out as it is not used anywhere
-        /*if (perceptionType == 1 && state.curLoc.diagonalDistance(map.davyLocation, 1, 1) == 1 || perceptionType == 2 && state.curLoc.manhattanDistance(map.davyLocation, 1) <= 2) {
-            state.davyDiscovered = true;
-        }
-        if (perceptionType == 1 && state.curLoc.diagonalDistance(map.rockLocation, 1, 1) == 1 || perceptionType == 2 && state.curLoc.manhattanDistance(map.rockLocation, 1) <= 2) {
-            state.rockDiscovered = true;
-        }*/
-
-        if (state.tortugaVisited && state.curLoc.diagonalDistance(map.krakenLocation, 1, 1) == 1) {
-            state.krakenAlive = false;
-        }
+    /**
+     * @param action Action to run on the ranges
+     * @param threshold Largest range the action is run on without splitting it
+     * @param from First index of the range
+     * @param to Index after the last one of the range
+     */
+    RangeTask(RangeAction action, int threshold, int from, int to) {
+        this.action = action;
+        this.threshold = threshold;
+        this.from = from;
+        this.to = to;
+    }
 
-        List<Point> pointNeighbors = map.getNeighbors(state.curLoc, state.krakenAlive);
-        for (Point pointNeighbor : pointNeighbors) {
-            if ((!state.tortugaVisited && state.visitedBeforeTortuga.isInTree(pointNeighbor) || state.tortugaVisited && state.visitedAfterTortuga.isInTree(pointNeighbor))) {
-                continue;  // Already visited this point, don't go there again
-            }
-            if (shortestPath != null && pointNeighbor.diagonalDistance(map.chestLocation, 1, 1) >= shortestPath.path.size()) {
-                continue;  // The point to be explored is further away from the chest location than the length of the shortest path, therefore, we will not get the shortest path if we go there
-            }
-            state.nextPossibleStates.add(new GameState(state, pointNeighbor));
-        }
-        while (!state.nextPossibleStates.isEmpty()) {
-            GameState stateToExplore = state.nextPossibleStates.poll();
-            exploreFutureGameStates(stateToExplore);
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            action.run(from, to);
+            return;
         }
+        int middle = (from + to) >>> 1;
+        invokeAll(new RangeTask(action, threshold, from, middle), new RangeTask(action, threshold, middle, to));
     }
 }
 
@@ -1094,11 +4377,14 @@ class StatisticalAnalysisReport {
      * A part of the statistical analysis report
      */
     class StatisticalAnalysisReportPart {
-        List<AlgorithmOutput> unsortedOutput = new ArrayList<>();
-        List<AlgorithmOutput> sortedOutput = new ArrayList<>();
+        RuntimeStatistics executionTimes = new RuntimeStatistics();
         AlgorithmOutput minimumExecutionTimeRun;
         AlgorithmOutput maximumExecutionTimeRun;
-        List<Map> lossMaps = new ArrayList<>();
+        int minimumExecutionTimeRunIndex = -1;
+        int maximumExecutionTimeRunIndex = -1;
+        // Seeds of the loss maps by run index, so that merged parts list them in the same order, only the first MAX_LOSS_MAPS runs are kept
+        TreeMap<Integer, Long> lossMapSeedsByRun = new TreeMap<>();
+        List<Long> lossMapSeeds = new ArrayList<>();  // Seeds of the kept loss maps in run order, the maps are regenerated when they are printed
         int n = 0;
         int losses = 0;
         int wins = 0;
@@ -1107,110 +4393,324 @@ class StatisticalAnalysisReport {
         String executionTimeMode;
         int executionTimeModeFrequency;
         double executionTimeStandardDeviation;
+        double[] executionTimePercentiles = new double[REPORTED_PERCENTILES.length];  // Runtimes at REPORTED_PERCENTILES, in milliseconds
+        double executionTimeMaximum;
+        long[] executionTimeHistogram;  // Runtimes by power of two of nanoseconds, see RuntimeStatistics.getLogHistogram
+        SearchCounters searchEffort = new SearchCounters();  // Search counters of all the counted runs added together
+        int countedRuns = 0;  // Number of runs whose search effort was counted
 
         /**
          * Generates a report for the given algorithm outputs
          * @param runs Algorithm outputs for different map runs
          */
         void generateReport(List<AlgorithmOutput> runs) {
-            unsortedOutput = new ArrayList<>(runs);
-            sortedOutput = unsortedOutput.stream().sorted(Comparator.comparingDouble(o -> o.millisecondRuntime)).toList();
-            minimumExecutionTimeRun = sortedOutput.get(0);
-            maximumExecutionTimeRun = sortedOutput.get(sortedOutput.size() - 1);
-
-            n = sortedOutput.size();
-            double sum = 0;
-            Hashtable<String, Integer> timeFrequencies = new Hashtable<>();
-            DecimalFormat df = new DecimalFormat("#.######");
-            df.setRoundingMode(RoundingMode.CEILING);
-
-            for (AlgorithmOutput output : unsortedOutput) {
-                sum += output.millisecondRuntime;
-                String curTime = df.format(output.millisecondRuntime);
-                timeFrequencies.put(curTime, timeFrequencies.getOrDefault(curTime, 0) + 1);
-                if (output.path == null) {
-                    losses += 1;
-                    lossMaps.add(output.map);
-                } else {
-                    wins += 1;
-                }
+            for (int i = 0; i < runs.size(); i++) {
+                add(runs.get(i), i);
             }
+            finish();
+        }
 
-            executionTimeMean = sum / sortedOutput.size();
-            if (sortedOutput.size() % 2 == 1) {
-                executionTimeMedian = sortedOutput.get((n + 1) / 2).millisecondRuntime;
+        /**
+         * Adds a run to the report, only keeping the output if it is the fastest or slowest run so far
+         * @param output Algorithm output
+         * @param runIndex Index of the run, used to order loss maps and to break ties between equally fast runs
+         */
+        synchronized void add(AlgorithmOutput output, int runIndex) {
+            executionTimes.add(output.millisecondRuntime);
+            n++;
+            if (output.counters != null) {
+                searchEffort.add(output.counters);
+                countedRuns++;
+            }
+            if (output.path == null) {
+                losses += 1;
+                if (output.map.seed != null) {  // Only seeded maps can be regenerated
+                    lossMapSeedsByRun.put(runIndex, output.map.seed);
+                    trimLossMaps();
+                }
             } else {
-                executionTimeMedian = (sortedOutput.get(n / 2).millisecondRuntime + sortedOutput.get(n / 2 + 1).millisecondRuntime) / 2;
+                wins += 1;
+            }
+            if (isFirstRun(output, runIndex, minimumExecutionTimeRun, minimumExecutionTimeRunIndex, true)) {
+                minimumExecutionTimeRun = output;
+                minimumExecutionTimeRunIndex = runIndex;
+            }
+            if (isFirstRun(output, runIndex, maximumExecutionTimeRun, maximumExecutionTimeRunIndex, false)) {
+                maximumExecutionTimeRun = output;
+                maximumExecutionTimeRunIndex = runIndex;
             }
+        }
 
-            String maxKey = "-1";
-            int maxValue = -1;
-            for (String key : timeFrequencies.keySet()) {
-                int curValue = timeFrequencies.get(key);
-                if (curValue > maxValue) {
-                    maxValue = curValue;
-                    maxKey = key;
+        /**
+         * Adds all the runs of another part to this one, so that parts filled on different threads can be combined
+         * @param other Part to add
+         */
+        synchronized void merge(StatisticalAnalysisReportPart other) {
+            synchronized (other) {
+                executionTimes.merge(other.executionTimes);
+                n += other.n;
+                searchEffort.add(other.searchEffort);
+                countedRuns += other.countedRuns;
+                wins += other.wins;
+                losses += other.losses;
+                lossMapSeedsByRun.putAll(other.lossMapSeedsByRun);
+                trimLossMaps();
+                if (other.minimumExecutionTimeRun != null && isFirstRun(other.minimumExecutionTimeRun, other.minimumExecutionTimeRunIndex, minimumExecutionTimeRun, minimumExecutionTimeRunIndex, true)) {
+                    minimumExecutionTimeRun = other.minimumExecutionTimeRun;
+                    minimumExecutionTimeRunIndex = other.minimumExecutionTimeRunIndex;
+                }
+                if (other.maximumExecutionTimeRun != null && isFirstRun(other.maximumExecutionTimeRun, other.maximumExecutionTimeRunIndex, maximumExecutionTimeRun, maximumExecutionTimeRunIndex, false)) {
+                    maximumExecutionTimeRun = other.maximumExecutionTimeRun;
+                    maximumExecutionTimeRunIndex = other.maximumExecutionTimeRunIndex;
                 }
             }
-            executionTimeMode = maxKey;
-            executionTimeModeFrequency = maxValue;
+        }
+
+        /**
+         * Drops the loss maps of the latest runs while there are more than MAX_LOSS_MAPS of them
+         */
+        private void trimLossMaps() {
+            while (lossMapSeedsByRun.size() > MAX_LOSS_MAPS) {
+                lossMapSeedsByRun.pollLastEntry();
+            }
+        }
+
+        /**
+         * Checks if a run should replace the fastest or slowest run so far, the earlier run is kept if both are equally fast
+         * @param output Algorithm output of the run
+         * @param runIndex Index of the run
+         * @param current Fastest or slowest run so far, null if there is none
+         * @param currentIndex Index of the current run
+         * @param minimum True to compare against the fastest run, false for the slowest
+         * @return True if the run should replace the current one
+         */
+        private boolean isFirstRun(AlgorithmOutput output, int runIndex, AlgorithmOutput current, int currentIndex, boolean minimum) {
+            if (current == null) {
+                return true;
+            }
+            if (output.millisecondRuntime != current.millisecondRuntime) {
+                return minimum == output.millisecondRuntime < current.millisecondRuntime;
+            }
+            return runIndex < currentIndex;
+        }
 
-            double squaredMeanDifferenceSum = 0;
-            for (AlgorithmOutput output : unsortedOutput) {
-                squaredMeanDifferenceSum += (output.millisecondRuntime - executionTimeMean) * (output.millisecondRuntime - executionTimeMean);
+        /**
+         * Computes the summary statistics from the runs added so far
+         */
+        synchronized void finish() {
+            lossMapSeeds = new ArrayList<>(lossMapSeedsByRun.values());
+            executionTimeMean = executionTimes.mean;
+            executionTimeMedian = executionTimes.getQuantile(0.5);
+            executionTimeStandardDeviation = executionTimes.getStandardDeviation();
+            for (int i = 0; i < REPORTED_PERCENTILES.length; i++) {
+                executionTimePercentiles[i] = executionTimes.getQuantile(REPORTED_PERCENTILES[i] / 100);
+            }
+            executionTimeMaximum = n == 0 ? Double.NaN : executionTimes.max;
+            executionTimeHistogram = executionTimes.getLogHistogram();
+            int modeBucket = executionTimes.getModeBucket();
+            if (modeBucket == -1) {
+                executionTimeMode = "-1";
+                executionTimeModeFrequency = -1;
+            } else {
+                double bucketMilliseconds = RuntimeStatistics.MODE_BUCKET_NANOSECONDS / 1000000.0;
+                executionTimeMode = String.format(Locale.ROOT, "%.3f-%.3f", modeBucket * bucketMilliseconds, (modeBucket + 1) * bucketMilliseconds);
+                executionTimeModeFrequency = executionTimes.modeBuckets[modeBucket];
             }
-            executionTimeStandardDeviation = Math.sqrt(squaredMeanDifferenceSum / (n - 1));
         }
     }
+    static final int VARIANT_COUNT = 6;
+    static final int ASTAR_VARIANT_ONE = 0;
+    static final int ASTAR_VARIANT_TWO = 1;
+    static final int BACKTRACKING_VARIANT_ONE = 2;
+    static final int BACKTRACKING_VARIANT_TWO = 3;
+    static final int JPS_VARIANT_ONE = 4;
+    static final int JPS_VARIANT_TWO = 5;
+    static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9};
+    static final int MAX_LOSS_MAPS = 1000;  // Loss maps kept by each part, so that the memory used does not grow with the number of losses
+    static final int MAPS_PER_TASK = 4;  // Maps solved by a parallel task without splitting it, each by every variant
     int n;
-    List<Map> maps = new ArrayList<>();
+    int parallelism;
+    int mapSize;
+    long seed;  // Map i of the report is MapFactory.GenerateMap(MapFactory.mapSeed(seed, i), mapSize)
+    SolutionCache solutionCache = null;  // Shared by all the runs of the report, null to solve every map
+    boolean countSearchEffort = false;  // Whether to count the search effort of every run, off by default, as counting adds to the measured runtimes
     StatisticalAnalysisReportPart backtrackingVariantOneReport = new StatisticalAnalysisReportPart();
     StatisticalAnalysisReportPart backtrackingVariantTwoReport = new StatisticalAnalysisReportPart();
     StatisticalAnalysisReportPart AStarVariantOneReport = new StatisticalAnalysisReportPart();
     StatisticalAnalysisReportPart AStarVariantTwoReport = new StatisticalAnalysisReportPart();
+    StatisticalAnalysisReportPart JPSVariantOneReport = new StatisticalAnalysisReportPart();
+    StatisticalAnalysisReportPart JPSVariantTwoReport = new StatisticalAnalysisReportPart();
+    // Parts of each worker thread of a parallel report, one for each variant, so that the runs are merged into the report once per worker
+    ThreadLocal<StatisticalAnalysisReportPart[]> workerParts;
+    List<StatisticalAnalysisReportPart[]> allWorkerParts = new ArrayList<>();
 
-    StatisticalAnalysisReport(int n) {
+    /**
+     * @param n Number of maps to generate
+     * @param parallelism Number of threads solving the maps, 1 to solve them sequentially on the calling thread
+     * @param seed Seed of the generated maps
+     * @param mapSize Size of the generated maps
+     */
+    StatisticalAnalysisReport(int n, int parallelism, long seed, int mapSize) {
         this.n = n;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.mapSize = mapSize;
+    }
+    StatisticalAnalysisReport(int n, int parallelism, long seed) {
+        this(n, parallelism, seed, Map.defaultSize);
+    }
+    StatisticalAnalysisReport(int n, int parallelism) {
+        this(n, parallelism, ThreadLocalRandom.current().nextLong());
+    }
+    StatisticalAnalysisReport(int n) {
+        this(n, 1);
     }
     StatisticalAnalysisReport() {
         this(1000);
     }
 
+    private StatisticalAnalysisReportPart[] makeWorkerParts() {
+        StatisticalAnalysisReportPart[] parts = new StatisticalAnalysisReportPart[VARIANT_COUNT];
+        for (int variant = 0; variant < VARIANT_COUNT; variant++) {
+            parts[variant] = new StatisticalAnalysisReportPart();
+        }
+        synchronized (allWorkerParts) {
+            allWorkerParts.add(parts);
+        }
+        return parts;
+    }
+
+    /**
+     * Solves a range of maps with every algorithm variant, as a RangeTask action of a parallel report.
+     * Each map is generated once and solved by all the variants, so the distance caches of the map are shared by them.
+     * The runs are added to the parts of the worker thread, so every worker makes one set of parts,
+     * and they are merged into the report once all the tasks are done.
+     * @param from Index of the first map
+     * @param to Index after the last map
+     */
+    private void solveMaps(int from, int to) {
+        StatisticalAnalysisReportPart[] parts = workerParts.get();
+        for (int mapI = from; mapI < to; mapI++) {
+            Map curMap = MapFactory.GenerateMap(MapFactory.mapSeed(seed, mapI), mapSize);
+            for (int variant = 0; variant < VARIANT_COUNT; variant++) {
+                parts[variant].add(runVariant(curMap, variant, solutionCache, countSearchEffort), mapI);
+            }
+        }
+    }
+
+    /**
+     * Runs an algorithm variant on a map, with a new algorithm object, as algorithms hold per-run state
+     * @param map Map to solve
+     * @param variant Variant number, one of the *_VARIANT_* constants
+     * @return Algorithm output
+     */
+    static AlgorithmOutput runVariant(Map map, int variant) {
+        return runVariant(map, variant, null);
+    }
+
+    /**
+     * Runs an algorithm variant on a map, with a new algorithm object, as algorithms hold per-run state
+     * @param map Map to solve
+     * @param variant Variant number, one of the *_VARIANT_* constants
+     * @param solutionCache Cache of solved maps, null to always search
+     * @return Algorithm output
+     */
+    static AlgorithmOutput runVariant(Map map, int variant, SolutionCache solutionCache) {
+        return runVariant(map, variant, solutionCache, false);
+    }
+
+    /**
+     * Runs an algorithm variant on a map, with a new algorithm object, as algorithms hold per-run state
+     * @param map Map to solve
+     * @param variant Variant number, one of the *_VARIANT_* constants
+     * @param solutionCache Cache of solved maps, null to always search
+     * @param countSearchEffort Whether to return search counters with the output
+     * @return Algorithm output
+     */
+    static AlgorithmOutput runVariant(Map map, int variant, SolutionCache solutionCache, boolean countSearchEffort) {
+        Algorithm algorithm = switch (variant) {
+            case ASTAR_VARIANT_ONE -> new AStarAlgorithm(map, 1);
+            case ASTAR_VARIANT_TWO -> new AStarAlgorithm(map, 2);
+            case BACKTRACKING_VARIANT_ONE -> new BacktrackingAlgorithm(map, 1);
+            case BACKTRACKING_VARIANT_TWO -> new BacktrackingAlgorithm(map, 2);
+            case JPS_VARIANT_ONE -> new JumpPointSearchAlgorithm(map, 1);
+            case JPS_VARIANT_TWO -> new JumpPointSearchAlgorithm(map, 2);
+            default -> throw new IllegalArgumentException("Unknown algorithm variant " + variant);
+        };
+        algorithm.solutionCache = solutionCache;
+        algorithm.countSearchEffort = countSearchEffort;
+        return algorithm.getPath();
+    }
+
+    /**
+     * Gets the report part of an algorithm variant
+     * @param variant Variant number, one of the *_VARIANT_* constants
+     * @return Report part
+     */
+    StatisticalAnalysisReportPart getVariantReport(int variant) {
+        return switch (variant) {
+            case ASTAR_VARIANT_ONE -> AStarVariantOneReport;
+            case ASTAR_VARIANT_TWO -> AStarVariantTwoReport;
+            case BACKTRACKING_VARIANT_ONE -> backtrackingVariantOneReport;
+            case BACKTRACKING_VARIANT_TWO -> backtrackingVariantTwoReport;
+            case JPS_VARIANT_ONE -> JPSVariantOneReport;
+            case JPS_VARIANT_TWO -> JPSVariantTwoReport;
+            default -> throw new IllegalArgumentException("Unknown algorithm variant " + variant);
+        };
+    }
+
+    /**
+     * Gets the name of an algorithm variant, as it is shown in the report
+     * @param variant Variant number, one of the *_VARIANT_* constants
+     * @return Variant name
+     */
+    static String getVariantName(int variant) {
+        return switch (variant) {
+            case ASTAR_VARIANT_ONE -> "A* Variant 1";
+            case ASTAR_VARIANT_TWO -> "A* Variant 2";
+            case BACKTRACKING_VARIANT_ONE -> "Backtracking Variant 1";
+            case BACKTRACKING_VARIANT_TWO -> "Backtracking Variant 2";
+            case JPS_VARIANT_ONE -> "Jump Point Search Variant 1";
+            case JPS_VARIANT_TWO -> "Jump Point Search Variant 2";
+            default -> throw new IllegalArgumentException("Unknown algorithm variant " + variant);
+        };
+    }
+
     /**
-     * Generates a full report for the n given
+     * Generates a full report for the n given.
+     * Every map is generated from its own seed and each output is streamed into its part under the index of its map,
+     * so a parallel report contains the same runs as a sequential one with the same seed, only the measured runtimes differ,
+     * and the memory used does not grow with n.
      */
     void generateFullReport() {
-        List<AlgorithmOutput> backtrackingVariantOneRuns = new ArrayList<>();
-        List<AlgorithmOutput> backtrackingVariantTwoRuns = new ArrayList<>();
-        List<AlgorithmOutput> AStarVariantOneRuns = new ArrayList<>();
-        List<AlgorithmOutput> AStarVariantTwoRuns = new ArrayList<>();
-
-        for (int i = 0; i < n; i++) {
-            Map curMap = MapFactory.GenerateMap(null);
-            maps.add(curMap);
-            AStarAlgorithm astarAlgoV1 = new AStarAlgorithm(curMap, 1);
-            AStarAlgorithm astarAlgoV2 = new AStarAlgorithm(curMap, 2);
-            BacktrackingAlgorithm backtrackAlgoV1 = new BacktrackingAlgorithm(curMap, 1);
-            BacktrackingAlgorithm backtrackAlgoV2 = new BacktrackingAlgorithm(curMap, 2);
-            AlgorithmOutput outputAStarV1 = astarAlgoV1.getPath();
-            AlgorithmOutput outputAStarV2 = astarAlgoV2.getPath();
-            AlgorithmOutput outputBacktrackV1 = backtrackAlgoV1.getPath();
-            AlgorithmOutput outputBacktrackV2 = backtrackAlgoV2.getPath();
-            backtrackingVariantOneRuns.add(outputBacktrackV1);
-            backtrackingVariantTwoRuns.add(outputBacktrackV2);
-            AStarVariantOneRuns.add(outputAStarV1);
-            AStarVariantTwoRuns.add(outputAStarV2);
-            /*
-            AlgorithmResultFormatter formatter = new AlgorithmResultFormatter(curMap, outputAStarV1);
-            System.out.println(formatter.makeString());
-            System.out.println("------------------");
-             */
-        }
-
-        backtrackingVariantOneReport.generateReport(backtrackingVariantOneRuns);
-        backtrackingVariantTwoReport.generateReport(backtrackingVariantTwoRuns);
-        AStarVariantOneReport.generateReport(AStarVariantOneRuns);
-        AStarVariantTwoReport.generateReport(AStarVariantTwoRuns);
+        if (parallelism > 1) {
+            workerParts = ThreadLocal.withInitial(this::makeWorkerParts);  // Made anew, as parts of an earlier report may be left on the calling thread
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new RangeTask(this::solveMaps, MAPS_PER_TASK, 0, n));
+            } finally {
+                pool.shutdown();
+            }
+            synchronized (allWorkerParts) {
+                for (StatisticalAnalysisReportPart[] parts : allWorkerParts) {
+                    for (int variant = 0; variant < VARIANT_COUNT; variant++) {
+                        getVariantReport(variant).merge(parts[variant]);
+                    }
+                }
+                allWorkerParts.clear();
+            }
+        } else {
+            Iterator<Map> maps = MapFactory.GenerateMaps(seed, mapSize).iterator();
+            for (int i = 0; i < n; i++) {
+                Map curMap = maps.next();
+                for (int variant = 0; variant < VARIANT_COUNT; variant++) {
+                    getVariantReport(variant).add(runVariant(curMap, variant, solutionCache, countSearchEffort), i);
+                }
+            }
+        }
+        for (int variant = 0; variant < VARIANT_COUNT; variant++) {
+            getVariantReport(variant).finish();
+        }
     }
 }
 
@@ -1294,14 +4794,312 @@ class StatisticalAnalysisReportFormatter {
         StatisticalAnalysisReportPartFormatter AStarV2Formatter = new StatisticalAnalysisReportPartFormatter(report.AStarVariantTwoReport);
         StatisticalAnalysisReportPartFormatter backtrackingV1Formatter = new StatisticalAnalysisReportPartFormatter(report.backtrackingVariantOneReport);
         StatisticalAnalysisReportPartFormatter backtrackingV2Formatter = new StatisticalAnalysisReportPartFormatter(report.backtrackingVariantTwoReport);
+        StatisticalAnalysisReportPartFormatter JPSV1Formatter = new StatisticalAnalysisReportPartFormatter(report.JPSVariantOneReport);
+        StatisticalAnalysisReportPartFormatter JPSV2Formatter = new StatisticalAnalysisReportPartFormatter(report.JPSVariantTwoReport);
         StringBuilder outStr = new StringBuilder();
-        outStr.append("For ").append(report.n).append(" runs:\n");
+        outStr.append("For ").append(report.n).append(" runs on ").append(report.mapSize).append("x").append(report.mapSize)
+                .append(" maps with seed ").append(report.seed).append(":\n");
         outStr.append("A* Variant 1:\n").append(AStarV1Formatter.makeString()).append('\n');
         outStr.append("A* Variant 2:\n").append(AStarV2Formatter.makeString()).append('\n');
         outStr.append("Backtracking Variant 1:\n").append(backtrackingV1Formatter.makeString()).append('\n');
         outStr.append("Backtracking Variant 2:\n").append(backtrackingV2Formatter.makeString()).append('\n');
+        outStr.append("Jump Point Search Variant 1:\n").append(JPSV1Formatter.makeString()).append('\n');
+        outStr.append("Jump Point Search Variant 2:\n").append(JPSV2Formatter.makeString()).append('\n');
+        outStr.append(makeLatencyString());
+        outStr.append(makeSearchEffortString());
+        return outStr.toString();
+    }
+
+    /**
+     * Generates the search effort section of the report: a table of the search counters of each variant, averaged over the counted runs,
+     * except for the open list size and the recursion depth, which are the largest of any run
+     * @return Report string, empty if no run was counted
+     */
+    String makeSearchEffortString() {
+        StringBuilder outStr = new StringBuilder("Search effort (mean per run, maximum of open list and depth):\n");
+        outStr.append(String.format(Locale.ROOT, "%-28s%12s%12s%10s%10s%8s", "Variant", "expanded", "generated", "max open", "searches", "depth"));
+        for (String rule : SearchCounters.PRUNE_RULE_NAMES) {
+            outStr.append(String.format(Locale.ROOT, "%24s", "pruned " + rule));
+        }
+        outStr.append(String.format(Locale.ROOT, "%14s", "bytes")).append('\n');
+        boolean anyCounted = false;
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            StatisticalAnalysisReport.StatisticalAnalysisReportPart part = report.getVariantReport(variant);
+            if (part.countedRuns == 0) {
+                continue;
+            }
+            anyCounted = true;
+            SearchCounters counters = part.searchEffort;
+            double runs = part.countedRuns;
+            outStr.append(String.format(Locale.ROOT, "%-28s%12.1f%12.1f%10d%10.2f%8d", StatisticalAnalysisReport.getVariantName(variant),
+                    counters.nodesExpanded / runs, counters.nodesGenerated / runs, counters.maxOpenListSize, counters.subSearches / runs, counters.maxRecursionDepth));
+            for (long hits : counters.pruneHits) {
+                outStr.append(String.format(Locale.ROOT, "%24.1f", hits / runs));
+            }
+            outStr.append(counters.bytesAllocated == -1 ? String.format(Locale.ROOT, "%14s", "n/a") : String.format(Locale.ROOT, "%14.0f", counters.bytesAllocated / runs)).append('\n');
+        }
+        return anyCounted ? outStr.append('\n').toString() : "";
+    }
+
+    /**
+     * Generates the latency section of the report: a table comparing the tail runtimes of all variants,
+     * and a histogram of the runtimes of each variant with a bucket for each power of two of nanoseconds
+     * @return Report string
+     */
+    String makeLatencyString() {
+        StringBuilder outStr = new StringBuilder("Latency percentiles (ms):\n");
+        outStr.append(String.format(Locale.ROOT, "%-28s", "Variant"));
+        for (double percentile : StatisticalAnalysisReport.REPORTED_PERCENTILES) {
+            outStr.append(String.format(Locale.ROOT, "%12s", "p" + formatPercentile(percentile)));
+        }
+        outStr.append(String.format(Locale.ROOT, "%12s", "max")).append('\n');
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            StatisticalAnalysisReport.StatisticalAnalysisReportPart part = report.getVariantReport(variant);
+            outStr.append(String.format(Locale.ROOT, "%-28s", StatisticalAnalysisReport.getVariantName(variant)));
+            for (double value : part.executionTimePercentiles) {
+                outStr.append(String.format(Locale.ROOT, "%12.4f", value));
+            }
+            outStr.append(String.format(Locale.ROOT, "%12.4f", part.executionTimeMaximum)).append('\n');
+        }
+        outStr.append('\n');
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            StatisticalAnalysisReport.StatisticalAnalysisReportPart part = report.getVariantReport(variant);
+            outStr.append(StatisticalAnalysisReport.getVariantName(variant)).append(" runtime histogram:\n");
+            long largest = Arrays.stream(part.executionTimeHistogram).max().orElse(0);
+            for (int bucket = 0; bucket < part.executionTimeHistogram.length; bucket++) {
+                long count = part.executionTimeHistogram[bucket];
+                if (count == 0) {
+                    continue;
+                }
+                outStr.append(String.format(Locale.ROOT, "[%10.4f, %10.4f) ms %8d ", getBucketStart(bucket), getBucketStart(bucket + 1), count));
+                outStr.append("#".repeat((int)Math.max(1, count * HISTOGRAM_WIDTH / largest))).append('\n');
+            }
+            outStr.append('\n');
+        }
+        return outStr.toString();
+    }
+
+    /**
+     * Generates the loss maps of a variant, each with its seed, regenerating the maps from the seeds kept by the report
+     * @param variant Variant number, one of the StatisticalAnalysisReport.*_VARIANT_* constants
+     * @return Report string
+     */
+    String makeLossMapsString(int variant) {
+        StringBuilder outStr = new StringBuilder();
+        for (long seed : report.getVariantReport(variant).lossMapSeeds) {
+            Map lossMap = MapFactory.GenerateMap(seed, report.mapSize);
+            outStr.append("Seed: ").append(seed).append('\n');
+            outStr.append(lossMap.getStringVisualization(true, null)).append("\n-----------------\n");
+        }
+        return outStr.toString();
+    }
+
+    /**
+     * Generates a CSV table with a row of summary statistics and percentiles for each variant
+     * @return CSV string, with a header row
+     */
+    String makeCsvString() {
+        StringBuilder outStr = new StringBuilder("variant,runs,wins,losses,mean_ms,standard_deviation_ms");
+        for (double percentile : StatisticalAnalysisReport.REPORTED_PERCENTILES) {
+            outStr.append(",p").append(formatPercentile(percentile).replace('.', '_')).append("_ms");
+        }
+        outStr.append(",max_ms,counted_runs,mean_nodes_expanded,mean_nodes_generated,max_open_list_size,mean_sub_searches,max_recursion_depth");
+        for (String rule : SearchCounters.PRUNE_RULE_NAMES) {
+            outStr.append(",mean_pruned_").append(rule.replace(' ', '_'));
+        }
+        outStr.append(",mean_bytes_allocated\n");
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            StatisticalAnalysisReport.StatisticalAnalysisReportPart part = report.getVariantReport(variant);
+            outStr.append(StatisticalAnalysisReport.getVariantName(variant)).append(',').append(part.n).append(',')
+                    .append(part.wins).append(',').append(part.losses).append(',')
+                    .append(part.executionTimeMean).append(',').append(part.executionTimeStandardDeviation);
+            for (double value : part.executionTimePercentiles) {
+                outStr.append(',').append(value);
+            }
+            outStr.append(',').append(part.executionTimeMaximum);
+            SearchCounters counters = part.searchEffort;
+            double runs = Math.max(1, part.countedRuns);
+            outStr.append(',').append(part.countedRuns).append(',').append(counters.nodesExpanded / runs).append(',').append(counters.nodesGenerated / runs)
+                    .append(',').append(counters.maxOpenListSize).append(',').append(counters.subSearches / runs).append(',').append(counters.maxRecursionDepth);
+            for (long hits : counters.pruneHits) {
+                outStr.append(',').append(hits / runs);
+            }
+            outStr.append(',').append(counters.bytesAllocated == -1 ? -1 : counters.bytesAllocated / runs).append('\n');
+        }
         return outStr.toString();
     }
+
+    /**
+     * Generates a CSV table of the runtime histograms, with a row for each non-empty bucket of each variant
+     * @return CSV string, with a header row
+     */
+    String makeHistogramCsvString() {
+        StringBuilder outStr = new StringBuilder("variant,bucket_start_ms,bucket_end_ms,count\n");
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            long[] histogram = report.getVariantReport(variant).executionTimeHistogram;
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                if (histogram[bucket] != 0) {
+                    outStr.append(StatisticalAnalysisReport.getVariantName(variant)).append(',').append(getBucketStart(bucket)).append(',')
+                            .append(getBucketStart(bucket + 1)).append(',').append(histogram[bucket]).append('\n');
+                }
+            }
+        }
+        return outStr.toString();
+    }
+
+    static final int HISTOGRAM_WIDTH = 40;  // Length of the bar of the largest histogram bucket
+
+    /**
+     * Gets the start of a histogram bucket
+     * @param bucket Index of the bucket
+     * @return Start of the bucket in milliseconds, 0 for the first one
+     */
+    static double getBucketStart(int bucket) {
+        return bucket == 0 ? 0 : Math.scalb(1.0, bucket) / 1000000;
+    }
+
+    /**
+     * Formats a percentile without a trailing ".0", so 99.9 stays "99.9" and 50 becomes "50"
+     * @param percentile Percentile
+     * @return Formatted percentile
+     */
+    static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long)percentile) : String.valueOf(percentile);
+    }
+}
+
+/**
+ * Solver of a file with many map inputs, see BatchInputReader, which writes a line with the result of each scenario in the order of the scenarios.
+ * Scenarios are read and solved in chunks, so the memory used does not depend on the size of the file, and the maps of a chunk are solved in parallel.
+ * Each result line is "Win", the number of moves and the path, or "Lose", or "Invalid input" if the scenario could not be parsed or its objects cannot be placed.
+ */
+class BatchSolver {
+    static final int SCENARIOS_PER_TASK = 16;  // Scenarios solved by a parallel task without splitting it
+    String inputFilename;
+    String outputFilename;
+    int parallelism;
+    int algorithm;  // StatisticalAnalysisReport.*_VARIANT_ONE constant of the algorithm, the variant is picked by the scenario
+    MapInput[] inputs;  // Scenarios of the current chunk, null for invalid ones
+    AlgorithmOutput[] outputs;  // Outputs of the current chunk, null for invalid scenarios
+    long scenarios = 0;
+    long wins = 0;
+    long losses = 0;
+    long invalid = 0;
+
+    /**
+     * @param inputFilename Name of the file with the scenarios
+     * @param outputFilename Name of the file to write the results to
+     * @param parallelism Number of threads solving the maps, 1 to solve them sequentially on the calling thread
+     * @param chunkSize Number of scenarios read before they are solved and their results written
+     * @param algorithm StatisticalAnalysisReport.*_VARIANT_ONE constant of the algorithm to solve the maps with
+     */
+    BatchSolver(String inputFilename, String outputFilename, int parallelism, int chunkSize, int algorithm) {
+        this.inputFilename = inputFilename;
+        this.outputFilename = outputFilename;
+        this.parallelism = parallelism;
+        this.algorithm = algorithm;
+        inputs = new MapInput[chunkSize];
+        outputs = new AlgorithmOutput[chunkSize];
+    }
+    BatchSolver(String inputFilename, String outputFilename, int parallelism) {
+        this(inputFilename, outputFilename, parallelism, 4096, StatisticalAnalysisReport.ASTAR_VARIANT_ONE);
+    }
+
+    /**
+     * Solves all the scenarios of the input file and writes their results
+     * @throws IOException If the input file cannot be read or the output file cannot be written
+     */
+    void run() throws IOException {
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try (BatchInputReader reader = new BatchInputReader(inputFilename);
+             BufferedWriter writer = Files.newBufferedWriter(Path.of(outputFilename))) {
+            while (reader.hasNext()) {
+                int count = 0;
+                while (count < inputs.length && reader.hasNext()) {
+                    inputs[count++] = reader.next();
+                }
+                if (pool != null) {
+                    pool.invoke(new RangeTask(this::solveRange, SCENARIOS_PER_TASK, 0, count));
+                } else {
+                    solveRange(0, count);
+                }
+                for (int i = 0; i < count; i++) {
+                    writeResult(writer, outputs[i]);
+                    inputs[i] = null;
+                    outputs[i] = null;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Solves a range of the current chunk, as a RangeTask action when solving in parallel
+     * @param from Index of the first scenario of the chunk
+     * @param to Index after the last scenario
+     */
+    private void solveRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            outputs[i] = solve(inputs[i]);
+        }
+    }
+
+    /**
+     * Solves a single scenario
+     * @param input Scenario, null if it is invalid
+     * @return Algorithm output, null if the scenario or its map is invalid
+     */
+    AlgorithmOutput solve(MapInput input) {
+        if (input == null) {
+            return null;
+        }
+        Map map = MapFactory.GenerateMap(input);
+        if (map == null) {
+            return null;
+        }
+        return StatisticalAnalysisReport.runVariant(map, getVariant(algorithm, input.scenario));
+    }
+
+    /**
+     * Gets the report variant of an algorithm for a perception type
+     * @param algorithm StatisticalAnalysisReport.*_VARIANT_ONE constant of the algorithm
+     * @param perceptionType Perception type of the captain, 1 or 2
+     * @return StatisticalAnalysisReport.*_VARIANT_* constant of the algorithm with the perception type
+     */
+    static int getVariant(int algorithm, int perceptionType) {
+        boolean variantOne = switch (perceptionType) {
+            case 1 -> true;
+            case 2 -> false;
+            default -> throw new IllegalArgumentException("Unknown perception type " + perceptionType);
+        };
+        return switch (algorithm) {
+            case StatisticalAnalysisReport.ASTAR_VARIANT_ONE -> variantOne ? StatisticalAnalysisReport.ASTAR_VARIANT_ONE : StatisticalAnalysisReport.ASTAR_VARIANT_TWO;
+            case StatisticalAnalysisReport.BACKTRACKING_VARIANT_ONE -> variantOne ? StatisticalAnalysisReport.BACKTRACKING_VARIANT_ONE : StatisticalAnalysisReport.BACKTRACKING_VARIANT_TWO;
+            case StatisticalAnalysisReport.JPS_VARIANT_ONE -> variantOne ? StatisticalAnalysisReport.JPS_VARIANT_ONE : StatisticalAnalysisReport.JPS_VARIANT_TWO;
+            default -> throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        };
+    }
+
+    private void writeResult(BufferedWriter writer, AlgorithmOutput output) throws IOException {
+        scenarios++;
+        if (output == null) {
+            invalid++;
+            writer.write("Invalid input");
+        } else if (output.path == null) {
+            losses++;
+            writer.write("Lose");
+        } else {
+            wins++;
+            writer.write("Win ");
+            writer.write(Integer.toString(output.path.path.size() - 1));
+            writer.write(' ');
+            writer.write(output.path.toString());
+        }
+        writer.newLine();
+    }
 }
 
 /**
@@ -1311,7 +5109,7 @@ public class EvseyAntonovich {
     public static void main(String[] args) {
         int n;
         Map myMap;
-        System.out.println("Enter 1 for input.txt input, enter 2 for random map generation, and enter 3 to generate a statistical report.");
+        System.out.println("Enter 1 for input.txt input, enter 2 for random map generation, enter 3 to generate a statistical report, and enter 4 to solve all the scenarios of batchInput.txt.");
         Scanner myScanner = new Scanner(System.in);
         n = myScanner.nextInt();
         int perceptionType = 1;
@@ -1328,9 +5126,44 @@ public class EvseyAntonovich {
             }
         } else if (n == 2) {
             myInput = null;
+        } else if (n == 4) {
+            BatchSolver solver = new BatchSolver("batchInput.txt", "batchOutput.txt", Runtime.getRuntime().availableProcessors());
+            try {
+                solver.run();
+            } catch (NoSuchFileException e) {
+                System.out.println("batchInput.txt not found! Please add it and restart program.");
+                return;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            System.out.println("Solved " + solver.scenarios + " scenarios: " + solver.wins + " wins, " + solver.losses + " losses, " + solver.invalid + " invalid inputs. Results are in batchOutput.txt.");
+            return;
         } else {
+            System.out.println("Enter the number of maps, the number of threads solving them and the seed of the maps, or an empty line for 1000 maps solved on one thread with a random seed.");
+            myScanner.nextLine();  // Rest of the line with the mode
+            String[] reportArgs = myScanner.hasNextLine() ? myScanner.nextLine().trim().split("\\s+") : new String[]{""};
             int runs = 1000;
-            StatisticalAnalysisReport report = new StatisticalAnalysisReport(runs);
+            int parallelism = 1;
+            long seed = ThreadLocalRandom.current().nextLong();
+            try {
+                if (!reportArgs[0].isEmpty()) {
+                    runs = Integer.parseInt(reportArgs[0]);
+                }
+                if (reportArgs.length >= 2) {
+                    parallelism = Integer.parseInt(reportArgs[1]);
+                }
+                if (reportArgs.length >= 3) {
+                    seed = Long.parseLong(reportArgs[2]);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid report parameters! Please restart program.");
+                return;
+            }
+            if (runs < 1 || parallelism < 1) {
+                System.out.println("Invalid report parameters! Please restart program.");
+                return;
+            }
+            StatisticalAnalysisReport report = new StatisticalAnalysisReport(runs, parallelism, seed);
             report.generateFullReport();
             StatisticalAnalysisReportFormatter formatter = new StatisticalAnalysisReportFormatter(report);
             String reportString = formatter.makeString();
@@ -1340,14 +5173,19 @@ public class EvseyAntonovich {
                 throw new RuntimeException(e);
             }
             System.out.println(reportString);
-
-            StringBuilder lossMapStr = new StringBuilder();
-            for (Map lossMap : report.AStarVariantOneReport.lossMaps) {
-                lossMapStr.append(lossMap.getStringVisualization(true, null)).append("\n-----------------\n");
+            try (PrintWriter csvWriter = new PrintWriter("statisticalAnalysisReport.csv")) {
+                csvWriter.print(formatter.makeCsvString());
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+            try (PrintWriter histogramWriter = new PrintWriter("statisticalAnalysisHistogram.csv")) {
+                histogramWriter.print(formatter.makeHistogramCsvString());
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException(e);
             }
 
             try (PrintWriter lossWriter = new PrintWriter("lossMaps.txt")) {
-                lossWriter.print(lossMapStr.toString());
+                lossWriter.print(formatter.makeLossMapsString(StatisticalAnalysisReport.ASTAR_VARIANT_ONE));
             } catch (FileNotFoundException e) {
                 throw new RuntimeException(e);
             }
@@ -1387,5 +5225,17 @@ public class EvseyAntonovich {
         }
         System.out.println("Backtracking:");
         System.out.println(formatterBacktracking.makeString());
+        System.out.println();
+
+        JumpPointSearchAlgorithm jpsAlgo = new JumpPointSearchAlgorithm(myMap, perceptionType);
+        AlgorithmOutput outputJPS = jpsAlgo.getPath();
+        AlgorithmResultFormatter formatterJPS = new AlgorithmResultFormatter(myMap, outputJPS);
+        try (PrintWriter jpsWriter = new PrintWriter("outputJumpPointSearch.txt")) {
+            jpsWriter.print(formatterJPS.makeString());
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        System.out.println("Jump Point Search:");
+        System.out.println(formatterJPS.makeString());
     }
 }
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.Test;
+
+class AStarAlgorithmTest {
+    @Test
+    void matchesBaselineLengths() {
+        assertBaselineLengths((map, perceptionType) -> new AStarAlgorithm(map, perceptionType));
+    }
+
+    @Test
+    void bidirectionalLegSearchMatchesBaselineLengths() {
+        assertBaselineLengths((map, perceptionType) -> new AStarAlgorithm(map, perceptionType, false, false, AStarAlgorithm.LEG_SEARCH_BIDIRECTIONAL));
+    }
+
+    @Test
+    void bidirectionalLegSearchKeepsTheDetourChoiceOfAStar() {
+        int extraDiscoveries = 0;
+        for (int mapSize : new int[]{Map.defaultSize, 16}) {
+            for (int index = 0; index < 1000; index++) {
+                Map map = MapFactory.GenerateMap(MapFactory.mapSeed(16, index), mapSize);
+                for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                    String message = "size " + mapSize + " index " + index + " perception " + perceptionType;
+                    AStarAlgorithm unidirectional = new AStarAlgorithm(map, perceptionType);
+                    AlgorithmOutput unidirectionalOutput = unidirectional.getPath();
+                    AStarAlgorithm bidirectional = new AStarAlgorithm(map, perceptionType, false, false, AStarAlgorithm.LEG_SEARCH_BIDIRECTIONAL);
+                    AlgorithmOutput bidirectionalOutput = bidirectional.getPath();
+                    assertEquals(BaselineMaps.pathLength(unidirectionalOutput), BaselineMaps.pathLength(bidirectionalOutput), message);
+                    assertTrue(bidirectional.krakenDiscovered || !unidirectional.krakenDiscovered, message);
+                    if (!unidirectional.krakenDiscovered) {
+                        if (bidirectional.krakenDiscovered) {
+                            extraDiscoveries++;
+                        }
+                        // The detour A* skipped is never shorter than its direct path, so trying it as well cannot change the result
+                        PathResult detour = unidirectional.getTortugaDetourPath();
+                        assertTrue(detour == null || unidirectionalOutput.path != null && detour.path.size() >= unidirectionalOutput.path.path.size(), message);
+                    }
+                }
+            }
+        }
+        assertTrue(extraDiscoveries > 0, "the bidirectional search should discover the Kraken on some maps where A* does not");
+    }
+
+    @Test
+    void incrementalLegSearchMatchesBaselineLengths() {
+        assertBaselineLengths((map, perceptionType) -> new AStarAlgorithm(map, perceptionType, false, false, AStarAlgorithm.LEG_SEARCH_INCREMENTAL));
+    }
+
+    @Test
+    void oracleLegSearchMatchesBaselineLengths() {
+        assertBaselineLengths((map, perceptionType) -> new AStarAlgorithm(map, perceptionType, false, false, AStarAlgorithm.LEG_SEARCH_ORACLE));
+    }
+
+    @Test
+    void jumpPointSearchMatchesBaselineLengths() {
+        assertBaselineLengths(JumpPointSearchAlgorithm::new);
+    }
+
+    @Test
+    void jumpPointSearchWithExactHeuristicAndDetourLegSearchesMatchesBaselineLengths() {
+        for (int legSearch : new int[]{AStarAlgorithm.LEG_SEARCH_UNIDIRECTIONAL, AStarAlgorithm.LEG_SEARCH_INCREMENTAL, AStarAlgorithm.LEG_SEARCH_ORACLE}) {
+            for (boolean exactHeuristic : new boolean[]{false, true}) {
+                assertBaselineLengths((map, perceptionType) -> new JumpPointSearchAlgorithm(map, perceptionType, exactHeuristic, legSearch));
+            }
+        }
+    }
+
+    @Test
+    void jumpPointSearchMatchesAStarOnSeededMaps() {
+        for (int index = 0; index < 2000; index++) {
+            Map map = MapFactory.GenerateMap(MapFactory.mapSeed(9, index), 16);  // Includes maps where the jumps pass by a cell A* discovers the Kraken from
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                assertEquals(BaselineMaps.pathLength(new AStarAlgorithm(map, perceptionType).getPath()),
+                        BaselineMaps.pathLength(new JumpPointSearchAlgorithm(map, perceptionType).getPath()), "index " + index + " perception " + perceptionType);
+            }
+        }
+    }
+
+    @Test
+    void jumpPointSearchRejectsBidirectionalLegSearch() {
+        Map map = BaselineMaps.MAPS.get(0).makeMap(1);
+        assertThrows(IllegalArgumentException.class, () -> new JumpPointSearchAlgorithm(map, 1, false, AStarAlgorithm.LEG_SEARCH_BIDIRECTIONAL));
+    }
+
+    /**
+     * Checks that an algorithm finds the baseline A* path lengths on all the baseline maps
+     * @param makeAlgorithm Makes the algorithm for a map and a perception type
+     */
+    static void assertBaselineLengths(BiFunction<Map, Integer, Algorithm> makeAlgorithm) {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                AlgorithmOutput output = makeAlgorithm.apply(baseline.makeMap(perceptionType), perceptionType).getPath();
+                assertEquals(baseline.getLength(BaselineMaps.ASTAR, perceptionType), BaselineMaps.pathLength(output),
+                        baseline.coords + " perception " + perceptionType);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BacktrackingAlgorithmTest {
+    @Test
+    void matchesBaselineLengths() {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                AlgorithmOutput output = new BacktrackingAlgorithm(baseline.makeMap(perceptionType), perceptionType).getPath();
+                assertEquals(baseline.getLength(BaselineMaps.BACKTRACKING, perceptionType), BaselineMaps.pathLength(output),
+                        baseline.coords + " perception " + perceptionType);
+            }
+        }
+    }
+}
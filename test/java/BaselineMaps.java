@@ -0,0 +1,70 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeded 9x9 maps with the path lengths the baseline algorithms found on them, read from baselineLengths.txt
+ */
+class BaselineMaps {
+    static final int ASTAR = 0;
+    static final int BACKTRACKING = 2;
+
+    /**
+     * A map of the fixture and the baseline path lengths on it
+     */
+    static class BaselineMap {
+        String coords;
+        int[] lengths = new int[4];  // Path lengths in points, -1 for a loss, at ASTAR or BACKTRACKING plus the perception type minus one
+
+        /**
+         * Builds the map, as main does for input.txt
+         * @param perceptionType Perception type of the captain
+         * @return Map
+         */
+        Map makeMap(int perceptionType) {
+            return MapFactory.GenerateMap(InputParser.parseLines(List.of(coords, String.valueOf(perceptionType))));
+        }
+
+        int getLength(int algorithm, int perceptionType) {
+            return lengths[algorithm + perceptionType - 1];
+        }
+    }
+
+    static final List<BaselineMap> MAPS = load();
+
+    private static List<BaselineMap> load() {
+        List<BaselineMap> maps = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(BaselineMaps.class.getResourceAsStream("/baselineLengths.txt"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(";");
+                String[] lengths = parts[1].split(" ");
+                BaselineMap map = new BaselineMap();
+                map.coords = parts[0];
+                for (int i = 0; i < map.lengths.length; i++) {
+                    map.lengths[i] = Integer.parseInt(lengths[i]);
+                }
+                maps.add(map);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return maps;
+    }
+
+    /**
+     * Gets the length of a path
+     * @param output Algorithm output
+     * @return Number of points in the path, -1 for a loss
+     */
+    static int pathLength(AlgorithmOutput output) {
+        return output.path == null ? -1 : output.path.path.size();
+    }
+}
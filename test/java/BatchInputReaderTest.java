@@ -0,0 +1,154 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchInputReaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheSameScenariosWithAnyWindowSize() throws IOException {
+        Random random = new Random(25);
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            appendRandomScenario(text, expected, random);
+        }
+        Path file = write(text.toString());
+        assertEquals(expected, readAll(file, BatchInputReader.WINDOW_BYTES));
+        for (int windowBytes = 80; windowBytes <= 300; windowBytes++) {  // Every scenario crosses a window boundary with some of these sizes
+            assertEquals(expected, readAll(file, windowBytes), "window of " + windowBytes + " bytes");
+        }
+    }
+
+    @Test
+    void mapSizeLineIsOptional() throws IOException {
+        Path file = write("[0,0] [4,4] [2,4] [3,0] [8,8] [7,0]\n1\n[0,0] [4,4] [2,4] [3,0] [11,11] [7,0]\n2\n12\n\n[0,0] [1,4] [2,4] [3,0] [8,8] [7,0]\r\n2\r\n");
+        assertEquals(List.of(
+                "1 9 [0,0] [4,4] [2,4] [3,0] [8,8] [7,0]",
+                "2 12 [0,0] [4,4] [2,4] [3,0] [11,11] [7,0]",
+                "2 9 [0,0] [1,4] [2,4] [3,0] [8,8] [7,0]"), readAll(file, BatchInputReader.WINDOW_BYTES));
+    }
+
+    @Test
+    void malformedScenariosDoNotShiftTheNextOnes() throws IOException {
+        String valid = "[0,0] [4,4] [2,4] [3,0] [8,8] [7,0]\n1\n";
+        Path file = write("[0,0] [4,4] [2,4] [3,0] [8,8] [7,0]\n"  // No scenario line
+                + valid
+                + "[0,0] [4,4] [2,4] [3,0] [8,8] [7,0]\n1\n9\n9\n"  // Extra line
+                + valid
+                + "[0,0] [4,4] [2,4] [3,0] [8,8] [7,0]\n1\nsize\n"  // Not a map size
+                + valid
+                + "\njunk\n1\n"  // Not a coordinates line, after an empty line, as it would be read as an extra line of the scenario before it otherwise
+                + valid);
+        List<String> scenarios = readAll(file, BatchInputReader.WINDOW_BYTES);
+        assertEquals(8, scenarios.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            if (i % 2 == 0) {
+                assertEquals("invalid", scenarios.get(i), "scenario " + i);
+            } else {
+                assertEquals("1 9 [0,0] [4,4] [2,4] [3,0] [8,8] [7,0]", scenarios.get(i), "scenario " + i);
+            }
+        }
+    }
+
+    @Test
+    void scenarioLongerThanTheWindowIsRejected() throws IOException {
+        Path file = write("[0,0] [4,4] [2,4] [3,0] [8,8] [7,0]" + " ".repeat(100) + "\n1\n");
+        try (BatchInputReader reader = new BatchInputReader(file.toString(), 64)) {
+            assertTrue(reader.hasNext());
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void emptyFileHasNoScenarios() throws IOException {
+        try (BatchInputReader reader = new BatchInputReader(write("\n\r\n\n").toString(), 2)) {
+            assertFalse(reader.hasNext());
+        }
+        try (BatchInputReader reader = new BatchInputReader(write("[0,0]\n").toString(), 64)) {
+            assertTrue(reader.hasNext());
+            assertNull(reader.next());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    /**
+     * Appends a random valid or malformed scenario
+     * @param text Text of the file
+     * @param expected Description of every scenario, see describe
+     * @param random Random generator
+     */
+    static void appendRandomScenario(StringBuilder text, List<String> expected, Random random) {
+        String lineBreak = random.nextInt(4) == 0 ? "\r\n" : "\n";
+        int mapSize = random.nextBoolean() ? Map.defaultSize : 5 + random.nextInt(12);
+        Point[] coords = new Point[6];
+        StringBuilder coordsLine = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            coords[i] = new Point(random.nextInt(mapSize), random.nextInt(mapSize));
+            coordsLine.append(i == 0 ? "" : " ").append(coords[i]);
+        }
+        int scenario = 1 + random.nextInt(2);
+        switch (random.nextInt(8)) {
+            case 0 -> {
+                text.append(coordsLine).append(lineBreak);  // No scenario line
+                expected.add("invalid");
+            }
+            case 1 -> {
+                text.append(coordsLine).append(lineBreak).append(scenario).append(lineBreak).append(mapSize).append(lineBreak).append('7').append(lineBreak);
+                expected.add("invalid");
+            }
+            default -> {
+                text.append(coordsLine).append(lineBreak).append(scenario).append(lineBreak);
+                if (mapSize != Map.defaultSize || random.nextBoolean()) {
+                    text.append(mapSize).append(lineBreak);
+                }
+                expected.add(describe(new MapInput(scenario, mapSize, coords[0], coords[1], coords[2], coords[3], coords[4], coords[5])));
+            }
+        }
+        if (random.nextInt(3) == 0) {
+            text.append(lineBreak);
+        }
+    }
+
+    /**
+     * Describes a scenario
+     * @param input Scenario, null if it is invalid
+     * @return Scenario number, map size and coordinates, or "invalid"
+     */
+    static String describe(MapInput input) {
+        if (input == null) {
+            return "invalid";
+        }
+        return input.scenario + " " + input.mapSize + " " + input.captainCoord + " " + input.davyCoord + " " + input.krakenCoord + " "
+                + input.rockCoord + " " + input.chestCoord + " " + input.tortugaCoord;
+    }
+
+    static List<String> readAll(Path file, int windowBytes) throws IOException {
+        List<String> scenarios = new ArrayList<>();
+        try (BatchInputReader reader = new BatchInputReader(file.toString(), windowBytes)) {
+            while (reader.hasNext()) {
+                scenarios.add(describe(reader.next()));
+            }
+        }
+        return scenarios;
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = Files.createTempFile(directory, "scenarios", ".txt");
+        Files.writeString(file, text, StandardCharsets.US_ASCII);
+        return file;
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchSolverTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void resultsAreInScenarioOrderAndMatchSingleSolves() throws IOException {
+        StringBuilder text = new StringBuilder();
+        List<Map> maps = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int mapSize = i % 3 == 0 ? 12 : Map.defaultSize;
+            Map map = MapFactory.GenerateMap(MapFactory.mapSeed(25, i), mapSize);
+            maps.add(map);
+            text.append(map.captainLocation).append(' ').append(map.davyLocation).append(' ').append(map.krakenLocation).append(' ')
+                    .append(map.rockLocation).append(' ').append(map.chestLocation).append(' ').append(map.tortugaLocation).append('\n')
+                    .append(1 + i % 2).append('\n');
+            if (mapSize != Map.defaultSize) {
+                text.append(mapSize).append('\n');
+            }
+            if (i % 10 == 5) {
+                text.append("[0,0] [0,0] [2,4] [3,0] [8,8] [7,0]\n1\n");  // The captain starts on Davy Jones, so the objects cannot be placed
+                maps.add(null);
+                text.append("[0,0] [4,4]\n1\n");  // Not six coordinates
+                maps.add(null);
+            }
+        }
+        Path input = directory.resolve("batchInput.txt");
+        Files.writeString(input, text.toString(), StandardCharsets.US_ASCII);
+        for (int algorithm : new int[]{StatisticalAnalysisReport.ASTAR_VARIANT_ONE, StatisticalAnalysisReport.BACKTRACKING_VARIANT_ONE}) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0, mapI = 0; i < maps.size(); i++) {
+                Map map = maps.get(i);
+                if (map == null) {
+                    expected.add("Invalid input");
+                    continue;
+                }
+                int perceptionType = 1 + mapI++ % 2;
+                Algorithm solver = algorithm == StatisticalAnalysisReport.ASTAR_VARIANT_ONE ? new AStarAlgorithm(map, perceptionType) : new BacktrackingAlgorithm(map, perceptionType);
+                PathResult path = solver.getPath().path;
+                expected.add(path == null ? "Lose" : "Win " + (path.path.size() - 1) + " " + path);
+            }
+            for (int parallelism : new int[]{1, 4}) {
+                Path output = directory.resolve("batchOutput" + algorithm + "_" + parallelism + ".txt");
+                BatchSolver solver = new BatchSolver(input.toString(), output.toString(), parallelism, 7, algorithm);
+                solver.run();
+                String message = StatisticalAnalysisReport.getVariantName(algorithm) + ", parallelism " + parallelism;
+                assertEquals(expected, Files.readAllLines(output), message);
+                assertEquals(maps.size(), solver.scenarios, message);
+                assertEquals(8, solver.invalid, message);
+            }
+        }
+    }
+}
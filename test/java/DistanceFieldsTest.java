@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class DistanceFieldsTest {
+    @Test
+    void fieldsAreBreadthFirstDistances() {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            Map map = baseline.makeMap(1);
+            DistanceFields fields = new DistanceFields(map);
+            for (boolean krakenPresent : new boolean[]{true, false}) {
+                assertArrayEquals(breadthFirstDistances(map, map.chestLocation, krakenPresent), fields.getField(map.chestLocation, krakenPresent), baseline.coords);
+                assertArrayEquals(breadthFirstDistances(map, map.tortugaLocation, krakenPresent), fields.getField(map.tortugaLocation, krakenPresent), baseline.coords);
+            }
+        }
+    }
+
+    @Test
+    void layeredSearchWithExactHeuristicMatchesBaselineBacktracking() {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                AlgorithmOutput output = new AStarAlgorithm(baseline.makeMap(perceptionType), perceptionType, true, true).getPath();
+                assertEquals(baseline.getLength(BaselineMaps.BACKTRACKING, perceptionType), BaselineMaps.pathLength(output),
+                        baseline.coords + " perception " + perceptionType);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of moves from every cell to a target with a plain breadth-first search
+     * @param map Map
+     * @param target Target point
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @return Distances by cell index, DistanceFields.UNREACHABLE for cells the target cannot be reached from
+     */
+    static int[] breadthFirstDistances(Map map, Point target, boolean krakenPresent) {
+        int[] distances = new int[map.mapSize * map.mapSize];
+        Arrays.fill(distances, DistanceFields.UNREACHABLE);
+        int[] neighborCells = new int[8];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int targetCell = map.cellIndex(target.x(), target.y());
+        distances[targetCell] = 0;
+        queue.add(targetCell);
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            int neighborCount = map.getNeighborCells(cell, krakenPresent, neighborCells);
+            for (int i = 0; i < neighborCount; i++) {
+                if (distances[neighborCells[i]] == DistanceFields.UNREACHABLE) {
+                    distances[neighborCells[i]] = distances[cell] + 1;
+                    queue.add(neighborCells[i]);
+                }
+            }
+        }
+        return distances;
+    }
+}
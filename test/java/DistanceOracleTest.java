@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DistanceOracleTest {
+    @Test
+    void distancesMatchBreadthFirstSearchAfterCellChanges() {
+        Random random = new Random(19);
+        for (int mapIndex = 0; mapIndex < 20; mapIndex++) {
+            Map map = MapFactory.GenerateMap(MapFactory.mapSeed(19, mapIndex), 16);
+            DistanceOracle oracle = map.getDistanceOracle();
+            int[] targetCells = {map.cellIndex(map.chestLocation.x(), map.chestLocation.y()), map.cellIndex(map.tortugaLocation.x(), map.tortugaLocation.y())};
+            for (int query = 0; query < 100; query++) {
+                if (random.nextInt(3) == 0) {
+                    int cell = random.nextInt(map.mapSize * map.mapSize);
+                    if (cell != targetCells[0] && cell != targetCells[1]) {
+                        map.setCellFlag(cell, Map.PERCEPTION_FLAG, !map.cellHasFlag(cell, Map.PERCEPTION_FLAG));
+                    }
+                }
+                boolean krakenPresent = random.nextBoolean();
+                Point target = map.cellPoint(targetCells[random.nextInt(targetCells.length)]);
+                int startCell = random.nextInt(map.mapSize * map.mapSize);
+                if (map.cellBlocked(startCell, krakenPresent)) {
+                    continue;
+                }
+                String message = "map " + mapIndex + " query " + query;
+                int expected = DistanceFieldsTest.breadthFirstDistances(map, target, krakenPresent)[startCell];
+                Point start = map.cellPoint(startCell);
+                PathResult path = oracle.getPath(start, target, krakenPresent);
+                if (expected == DistanceFields.UNREACHABLE) {
+                    assertEquals(DistanceOracle.UNREACHABLE, oracle.getDistance(start, target, krakenPresent), message);
+                    assertNull(path, message);
+                } else {
+                    assertEquals(expected, oracle.getDistance(start, target, krakenPresent), message);
+                    assertEquals(expected + 1, path.path.size(), message);
+                    assertValidPath(map, path.path, start, target, krakenPresent, message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void treesAreDroppedWhenACellChanges() {
+        Map map = MapFactory.GenerateMap(MapFactory.mapSeed(19, 0), 16);
+        DistanceOracle oracle = map.getDistanceOracle();
+        oracle.getDistance(map.captainLocation, map.chestLocation, true);
+        assertFalse(oracle.trees.isEmpty());
+        int cell = map.cellIndex(map.captainLocation.x(), map.captainLocation.y());
+        map.setCellFlag(cell, Map.DANGER_FLAG, !map.cellHasFlag(cell, Map.DANGER_FLAG));
+        assertTrue(oracle.trees.isEmpty());
+    }
+
+    /**
+     * Checks that a path goes from the start to the target by moves to neighboring cells which are not blocked
+     * @param map Map
+     * @param path Points of the path
+     * @param start Starting point
+     * @param target Target point
+     * @param krakenPresent Whether the Kraken is alive or not
+     * @param message Message of a failed assertion
+     */
+    static void assertValidPath(Map map, List<Point> path, Point start, Point target, boolean krakenPresent, String message) {
+        assertEquals(start, path.get(0), message);
+        assertEquals(target, path.get(path.size() - 1), message);
+        for (int i = 1; i < path.size(); i++) {
+            assertEquals(1, path.get(i - 1).diagonalDistance(path.get(i), 1, 1), message);
+            assertFalse(map.cellBlocked(map.cellIndex(path.get(i).x(), path.get(i).y()), krakenPresent), message);
+        }
+    }
+}
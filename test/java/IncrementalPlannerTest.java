@@ -0,0 +1,42 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IncrementalPlannerTest {
+    @Test
+    void repairedPathsMatchFreshSearches() {
+        Random random = new Random(18);
+        for (int mapIndex = 0; mapIndex < 20; mapIndex++) {
+            Map map = MapFactory.GenerateMap(MapFactory.mapSeed(18, mapIndex), 16);
+            int chestCell = map.cellIndex(map.chestLocation.x(), map.chestLocation.y());
+            boolean krakenPresent = true;
+            IncrementalPlanner planner = new IncrementalPlanner(map, map.chestLocation, krakenPresent);
+            for (int query = 0; query < 100; query++) {
+                int change = random.nextInt(4);
+                if (change == 0) {
+                    krakenPresent = !krakenPresent;
+                    planner.setKrakenPresent(krakenPresent);
+                } else if (change == 1) {
+                    int cell = random.nextInt(map.mapSize * map.mapSize);
+                    if (cell != chestCell) {
+                        map.setCellFlag(cell, Map.PERCEPTION_FLAG, !map.cellHasFlag(cell, Map.PERCEPTION_FLAG));
+                    }
+                }
+                int startCell = random.nextInt(map.mapSize * map.mapSize);
+                if (map.cellBlocked(startCell, krakenPresent)) {
+                    continue;
+                }
+                int expected = DistanceFieldsTest.breadthFirstDistances(map, map.chestLocation, krakenPresent)[startCell];
+                PathResult path = planner.getPath(map.cellPoint(startCell));
+                if (expected == DistanceFields.UNREACHABLE) {
+                    assertNull(path, "map " + mapIndex + " query " + query);
+                } else {
+                    assertEquals(expected + 1, path.path.size(), "map " + mapIndex + " query " + query);
+                }
+            }
+            planner.close();
+        }
+    }
+}
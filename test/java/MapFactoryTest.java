@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Iterator;
+import org.junit.jupiter.api.Test;
+
+class MapFactoryTest {
+    static final long SEED = 0x5EEDL;
+
+    @Test
+    void sameSeedGivesSameMap() {
+        for (int mapSize : new int[]{Map.defaultSize, 16, 40}) {
+            for (long index = 0; index < 50; index++) {
+                long mapSeed = MapFactory.mapSeed(SEED, index);
+                Map first = MapFactory.GenerateMap(mapSeed, mapSize);
+                Map second = MapFactory.GenerateMap(mapSeed, mapSize);
+                assertEquals(mapSeed, first.seed);
+                assertSameMap(first, second, "size " + mapSize + " index " + index);
+            }
+        }
+    }
+
+    @Test
+    void generatedSequenceMatchesMapsGeneratedByIndex() {
+        for (int mapSize : new int[]{Map.defaultSize, 16}) {
+            Iterator<Map> maps = MapFactory.GenerateMaps(SEED, mapSize).iterator();
+            for (int index = 0; index < 50; index++) {
+                assertSameMap(MapFactory.GenerateMap(MapFactory.mapSeed(SEED, index), mapSize), maps.next(), "size " + mapSize + " index " + index);
+            }
+        }
+    }
+
+    @Test
+    void neighbouringIndicesGetDifferentSeeds() {
+        for (long index = 0; index < 1000; index++) {
+            assertNotEquals(MapFactory.mapSeed(SEED, index), MapFactory.mapSeed(SEED, index + 1));
+        }
+    }
+
+    /**
+     * Checks that two maps have the same size, seed and objects
+     * @param expected Expected map
+     * @param actual Actual map
+     * @param message Message of a failed assertion
+     */
+    static void assertSameMap(Map expected, Map actual, String message) {
+        assertEquals(expected.mapSize, actual.mapSize, message);
+        assertEquals(expected.seed, actual.seed, message);
+        assertEquals(expected.captainLocation, actual.captainLocation, message);
+        assertEquals(expected.davyLocation, actual.davyLocation, message);
+        assertEquals(expected.krakenLocation, actual.krakenLocation, message);
+        assertEquals(expected.rockLocation, actual.rockLocation, message);
+        assertEquals(expected.chestLocation, actual.chestLocation, message);
+        assertEquals(expected.tortugaLocation, actual.tortugaLocation, message);
+        assertEquals(expected.getStringVisualization(true, null), actual.getStringVisualization(true, null), message);
+    }
+}
@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelBacktrackingAlgorithmTest {
+    static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutDown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void matchesBaselineLengths() {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                AlgorithmOutput output = new ParallelBacktrackingAlgorithm(baseline.makeMap(perceptionType), perceptionType, POOL, 3).getPath();
+                assertEquals(baseline.getLength(BaselineMaps.BACKTRACKING, perceptionType), BaselineMaps.pathLength(output),
+                        baseline.coords + " perception " + perceptionType);
+            }
+        }
+    }
+
+    @Test
+    void repeatedSolvesStartOver() {
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);  // Explores the tasks in a fixed order, so every solve expands the same states
+        try {
+            BaselineMaps.BaselineMap baseline = BaselineMaps.MAPS.get(0);
+            ParallelBacktrackingAlgorithm algorithm = new ParallelBacktrackingAlgorithm(baseline.makeMap(1), 1, singleThreadPool, 3);
+            algorithm.countSearchEffort = true;
+            AlgorithmOutput first = algorithm.getPath();
+            for (int i = 0; i < 3; i++) {
+                AlgorithmOutput next = algorithm.getPath();
+                assertEquals(BaselineMaps.pathLength(first), BaselineMaps.pathLength(next));
+                assertEquals(first.counters.nodesExpanded, next.counters.nodesExpanded);
+                assertEquals(first.counters.nodesGenerated, next.counters.nodesGenerated);
+            }
+        } finally {
+            singleThreadPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class RuntimeStatisticsTest {
+    @Test
+    void constantSamples() {
+        RuntimeStatistics statistics = new RuntimeStatistics();
+        for (int i = 0; i < 1000; i++) {
+            statistics.add(2.5);
+        }
+        assertEquals(1000, statistics.count);
+        assertEquals(2.5, statistics.mean, 1e-12);
+        assertEquals(0, statistics.getStandardDeviation(), 1e-9);
+        for (double quantile : new double[]{0, 0.5, 0.9, 0.999, 1}) {
+            assertEquals(2.5, statistics.getQuantile(quantile), 1e-12);  // Clamped to the minimum and maximum, which are both exact
+        }
+        assertEquals(2500, statistics.getModeBucket());
+        assertEquals(1000, statistics.modeBuckets[2500]);
+        long[] histogram = statistics.getLogHistogram();
+        assertEquals(1000, histogram[21]);  // 2.5 ms is 2500000 ns, between 2^21 and 2^22
+        assertEquals(1000, Arrays.stream(histogram).sum());
+    }
+
+    @Test
+    void uniformSamples() {
+        RuntimeStatistics statistics = new RuntimeStatistics();
+        for (int k = 1; k <= 100; k++) {
+            statistics.add(k * 0.1);
+        }
+        assertEquals(5.05, statistics.mean, 1e-9);
+        assertEquals(Math.sqrt(0.01 * 100 * 101 / 12.0), statistics.getStandardDeviation(), 1e-9);  // Sample variance of 1..100 is 100 * 101 / 12
+        assertEquals(0.1, statistics.min, 1e-12);
+        assertEquals(10.0, statistics.max, 1e-12);
+        for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+            double expected = quantile * 10;  // The sample of rank ceil(quantile * 100)
+            assertEquals(expected, statistics.getQuantile(quantile), expected / 64, "quantile " + quantile);
+        }
+        assertEquals(10.0, statistics.getQuantile(1), 1e-12);
+    }
+
+    @Test
+    void modeBucketHasTheMostSamples() {
+        RuntimeStatistics statistics = new RuntimeStatistics();
+        for (int i = 0; i < 3; i++) {
+            statistics.add(1.0005);
+        }
+        for (int i = 0; i < 5; i++) {
+            statistics.add(2.0002);
+        }
+        statistics.add(20);  // Too slow for the mode buckets
+        assertEquals(2000, statistics.getModeBucket());
+        assertEquals(5, statistics.modeBuckets[2000]);
+        assertEquals(3, statistics.modeBuckets[1000]);
+        assertEquals(-1, new RuntimeStatistics().getModeBucket());
+    }
+
+    @Test
+    void mergedStatisticsMatchAddingAllSamples() {
+        RuntimeStatistics all = new RuntimeStatistics();
+        RuntimeStatistics first = new RuntimeStatistics();
+        RuntimeStatistics second = new RuntimeStatistics();
+        for (int k = 1; k <= 500; k++) {
+            double milliseconds = (k * 37 % 101) * 0.013;
+            all.add(milliseconds);
+            (k % 3 == 0 ? first : second).add(milliseconds);
+        }
+        first.merge(second);
+        assertEquals(all.count, first.count);
+        assertEquals(all.mean, first.mean, 1e-9);
+        assertEquals(all.getStandardDeviation(), first.getStandardDeviation(), 1e-9);
+        assertEquals(all.min, first.min);
+        assertEquals(all.max, first.max);
+        assertArrayEquals(all.quantileBuckets, first.quantileBuckets);
+        assertArrayEquals(all.modeBuckets, first.modeBuckets);
+        assertEquals(all.getQuantile(0.9), first.getQuantile(0.9));
+    }
+
+    @Test
+    void quantileBucketsAreExactForSmallRuntimesAndNarrowForLargeOnes() {
+        for (long nanoseconds = 0; nanoseconds < RuntimeStatistics.SUB_BUCKET_COUNT; nanoseconds++) {
+            assertEquals(nanoseconds, RuntimeStatistics.getQuantileBucket(nanoseconds));
+        }
+        int previous = -1;
+        for (long nanoseconds = 1; nanoseconds < 1L << 40; nanoseconds = nanoseconds * 3 / 2 + 1) {
+            int bucket = RuntimeStatistics.getQuantileBucket(nanoseconds);
+            assertTrue(bucket > previous && bucket < RuntimeStatistics.QUANTILE_BUCKET_COUNT, "nanoseconds " + nanoseconds);
+            previous = bucket;
+            int shift = bucket >>> RuntimeStatistics.SUB_BUCKET_BITS;
+            long lowest = (long)(bucket & (RuntimeStatistics.SUB_BUCKET_COUNT - 1)) << shift;
+            assertTrue(lowest <= nanoseconds && nanoseconds - lowest < Math.max(1, lowest / 64 + 1), "nanoseconds " + nanoseconds);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class SearchCountersTest {
+    @Test
+    void runsHaveNoCountersUnlessCountingIsOn() {
+        Map map = BaselineMaps.MAPS.get(0).makeMap(1);
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant += 2) {
+            String name = StatisticalAnalysisReport.getVariantName(variant);
+            assertNull(StatisticalAnalysisReport.runVariant(map, variant).counters, name);
+            SearchCounters counters = StatisticalAnalysisReport.runVariant(map, variant, null, true).counters;
+            assertNotNull(counters, name);
+            assertTrue(counters.nodesExpanded > 0, name);
+            assertTrue(counters.nodesGenerated > 0, name);
+        }
+        SearchCounters aStar = StatisticalAnalysisReport.runVariant(map, StatisticalAnalysisReport.ASTAR_VARIANT_ONE, null, true).counters;
+        assertTrue(aStar.subSearches > 0);
+        assertTrue(aStar.maxOpenListSize > 0);
+        SearchCounters backtracking = StatisticalAnalysisReport.runVariant(map, StatisticalAnalysisReport.BACKTRACKING_VARIANT_ONE, null, true).counters;
+        assertTrue(backtracking.maxRecursionDepth > 0);
+        assertTrue(Arrays.stream(backtracking.pruneHits).sum() > 0);
+    }
+
+    @Test
+    void reportCountsSearchEffortOnlyWhenAsked() {
+        StatisticalAnalysisReport uncounted = new StatisticalAnalysisReport(20, 1, 23);
+        assertFalse(uncounted.countSearchEffort);
+        uncounted.generateFullReport();
+        StatisticalAnalysisReport counted = new StatisticalAnalysisReport(20, 1, 23);
+        counted.countSearchEffort = true;
+        counted.generateFullReport();
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            String name = StatisticalAnalysisReport.getVariantName(variant);
+            StatisticalAnalysisReport.StatisticalAnalysisReportPart uncountedPart = uncounted.getVariantReport(variant);
+            assertEquals(0, uncountedPart.countedRuns, name);
+            assertEquals(0, uncountedPart.searchEffort.nodesExpanded, name);
+            assertEquals(0, uncountedPart.searchEffort.nodesGenerated, name);
+            assertEquals(0, Arrays.stream(uncountedPart.searchEffort.pruneHits).sum(), name);
+            StatisticalAnalysisReport.StatisticalAnalysisReportPart countedPart = counted.getVariantReport(variant);
+            assertEquals(20, countedPart.countedRuns, name);
+            assertTrue(countedPart.searchEffort.nodesExpanded > 0, name);
+        }
+        assertEquals("", new StatisticalAnalysisReportFormatter(uncounted).makeSearchEffortString());
+        assertFalse(new StatisticalAnalysisReportFormatter(counted).makeSearchEffortString().isEmpty());
+    }
+
+    @Test
+    void addedCountersSumAndKeepMaxima() {
+        SearchCounters first = new SearchCounters();
+        first.nodesExpanded = 3;
+        first.maxOpenListSize = 7;
+        first.pruneHits[SearchCounters.PRUNE_BOUND] = 2;
+        first.bytesAllocated = 100;
+        SearchCounters second = new SearchCounters();
+        second.nodesExpanded = 4;
+        second.maxOpenListSize = 5;
+        second.pruneHits[SearchCounters.PRUNE_BOUND] = 1;
+        second.bytesAllocated = -1;
+        first.add(second);
+        assertEquals(7, first.nodesExpanded);
+        assertEquals(7, first.maxOpenListSize);
+        assertEquals(3, first.pruneHits[SearchCounters.PRUNE_BOUND]);
+        assertEquals(-1, first.bytesAllocated);  // Unknown once any of the added counters is unknown
+    }
+}
@@ -0,0 +1,141 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SolutionCacheTest {
+    @Test
+    void inverseSymmetriesUndoTheTransforms() {
+        PathResult path = makePath(new Point(0, 0), new Point(1, 2), new Point(2, 3), new Point(3, 3));
+        Set<List<Point>> transformedPaths = new HashSet<>();
+        for (int symmetry = 0; symmetry < SolutionCache.SYMMETRY_COUNT; symmetry++) {
+            PathResult transformed = SolutionCache.transformResult(path, symmetry, 9);
+            transformedPaths.add(transformed.path);
+            for (Point point : transformed.path) {
+                assertTrue(point.x() >= 0 && point.x() < 9 && point.y() >= 0 && point.y() < 9, "symmetry " + symmetry);
+            }
+            PathResult restored = SolutionCache.transformResult(transformed, SolutionCache.inverse(symmetry), 9);
+            assertEquals(path.path, restored.path, "symmetry " + symmetry);
+            assertEquals(path.start, restored.start, "symmetry " + symmetry);
+            assertEquals(path.end, restored.end, "symmetry " + symmetry);
+        }
+        assertEquals(SolutionCache.SYMMETRY_COUNT, transformedPaths.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryOverEntryLimit() {
+        SolutionCache cache = new SolutionCache(2, 1000, false);
+        SolutionCache.MapFingerprint first = makeFingerprint(1);
+        SolutionCache.MapFingerprint second = makeFingerprint(2);
+        SolutionCache.MapFingerprint third = makeFingerprint(3);
+        cache.store(first, makePath(new Point(0, 0)));
+        cache.store(second, makePath(new Point(0, 0)));
+        assertTrue(cache.lookup(first, new PathResult[1]));  // The second entry is now the least recently used one
+        cache.store(third, makePath(new Point(0, 0)));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions);
+        assertTrue(cache.lookup(first, new PathResult[1]));
+        assertFalse(cache.lookup(second, new PathResult[1]));
+        assertTrue(cache.lookup(third, new PathResult[1]));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOverPointLimit() {
+        SolutionCache cache = new SolutionCache(100, 10, false);
+        PathResult fourPoints = makePath(new Point(0, 0), new Point(1, 1), new Point(2, 2), new Point(3, 3));
+        for (int i = 1; i <= 3; i++) {
+            cache.store(makeFingerprint(i), fourPoints);
+        }
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.points);
+        assertFalse(cache.lookup(makeFingerprint(1), new PathResult[1]));
+        cache.store(makeFingerprint(4), null);  // Losses take no points, so nothing is evicted
+        assertEquals(3, cache.size());
+        assertEquals(8, cache.points);
+    }
+
+    @Test
+    void hitReturnsTheSamePathAsColdSolve() {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                Map map = baseline.makeMap(perceptionType);
+                String message = baseline.coords + " perception " + perceptionType;
+                PathResult cold = new AStarAlgorithm(map, perceptionType).getPath().path;
+                SolutionCache cache = new SolutionCache(16, 1024, true);
+                for (int run = 0; run < 2; run++) {
+                    AStarAlgorithm algorithm = new AStarAlgorithm(map, perceptionType);
+                    algorithm.solutionCache = cache;
+                    PathResult cached = algorithm.getPath().path;
+                    assertEquals(cold == null ? null : cold.path, cached == null ? null : cached.path, message);
+                }
+                assertEquals(1, cache.hits, message);
+            }
+        }
+    }
+
+    @Test
+    void onlyShortestPathAlgorithmsShareEntriesOfRotatedMaps() {
+        for (BaselineMaps.BaselineMap baseline : BaselineMaps.MAPS) {
+            for (int perceptionType = 1; perceptionType <= 2; perceptionType++) {
+                Map map = baseline.makeMap(perceptionType);
+                String message = baseline.coords + " perception " + perceptionType;
+                SolutionCache cache = new SolutionCache(16, 1024, true);
+                for (int symmetry = 0; symmetry < SolutionCache.SYMMETRY_COUNT; symmetry++) {
+                    Map transformed = transformMap(map, symmetry, perceptionType);
+                    AStarAlgorithm aStar = new AStarAlgorithm(transformed, perceptionType);
+                    aStar.solutionCache = cache;
+                    aStar.getPath();
+                    BacktrackingAlgorithm backtracking = new BacktrackingAlgorithm(transformed, perceptionType);
+                    backtracking.solutionCache = cache;
+                    PathResult path = backtracking.getPath().path;
+                    assertEquals(baseline.getLength(BaselineMaps.BACKTRACKING, perceptionType), path == null ? -1 : path.path.size(), message + " symmetry " + symmetry);
+                    if (path != null) {
+                        DistanceOracleTest.assertValidPath(transformed, path.path, transformed.captainLocation, transformed.chestLocation, false, message);
+                    }
+                }
+                assertEquals(SolutionCache.SYMMETRY_COUNT - 1, cache.hits, message);  // Backtracking hits for every orientation but the first, A* never does
+            }
+        }
+    }
+
+    /**
+     * Makes a map with the objects of another map moved by a symmetry
+     * @param map Map
+     * @param symmetry Number of the symmetry
+     * @param perceptionType Perception type of the captain
+     * @return Transformed map
+     */
+    static Map transformMap(Map map, int symmetry, int perceptionType) {
+        MapInput input = new MapInput(perceptionType, map.mapSize, transformPoint(map.captainLocation, symmetry, map.mapSize),
+                transformPoint(map.davyLocation, symmetry, map.mapSize), transformPoint(map.krakenLocation, symmetry, map.mapSize),
+                transformPoint(map.rockLocation, symmetry, map.mapSize), transformPoint(map.chestLocation, symmetry, map.mapSize),
+                transformPoint(map.tortugaLocation, symmetry, map.mapSize));
+        Map transformed = MapFactory.GenerateMap(input);
+        assertNotNull(transformed);
+        return transformed;
+    }
+
+    private static Point transformPoint(Point point, int symmetry, int mapSize) {
+        int packed = SolutionCache.transform(symmetry, point.x(), point.y(), mapSize);
+        return new Point(Point.unpackX(packed), Point.unpackY(packed));
+    }
+
+    private static SolutionCache.MapFingerprint makeFingerprint(int id) {
+        return new SolutionCache.MapFingerprint("test", 9, 1, new int[]{id});
+    }
+
+    private static PathResult makePath(Point... points) {
+        PathResult result = new PathResult();
+        result.start = points[0];
+        result.end = points[points.length - 1];
+        result.goal = result.end;
+        result.path = new ArrayList<>(List.of(points));
+        return result;
+    }
+}
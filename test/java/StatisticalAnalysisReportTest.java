@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StatisticalAnalysisReportTest {
+    @Test
+    void lossMapsAreKeptAsSeedsAndRegenerated() {
+        StatisticalAnalysisReport sequential = new StatisticalAnalysisReport(300, 1, 21);
+        sequential.generateFullReport();
+        StatisticalAnalysisReport parallel = new StatisticalAnalysisReport(300, 4, 21);
+        parallel.generateFullReport();
+        StatisticalAnalysisReport.StatisticalAnalysisReportPart part = sequential.AStarVariantOneReport;
+        assertTrue(part.losses > 0);
+        assertEquals(Math.min(part.losses, StatisticalAnalysisReport.MAX_LOSS_MAPS), part.lossMapSeeds.size());
+        assertEquals(part.lossMapSeeds, parallel.AStarVariantOneReport.lossMapSeeds);
+        for (long seed : part.lossMapSeeds) {
+            Map lossMap = MapFactory.GenerateMap(seed, sequential.mapSize);
+            assertNull(new AStarAlgorithm(lossMap, 1).getPath().path, "seed " + seed);
+        }
+        String lossMaps = new StatisticalAnalysisReportFormatter(sequential).makeLossMapsString(StatisticalAnalysisReport.ASTAR_VARIANT_ONE);
+        assertEquals(part.lossMapSeeds.size(), lossMaps.split("Seed: ", -1).length - 1);
+    }
+
+    @Test
+    void csvHasAHeaderAndARowForEachVariant() {
+        StatisticalAnalysisReport report = new StatisticalAnalysisReport(50, 1, 22);
+        report.generateFullReport();
+        StatisticalAnalysisReportFormatter formatter = new StatisticalAnalysisReportFormatter(report);
+        String[] lines = formatter.makeCsvString().split("\n");
+        assertEquals(StatisticalAnalysisReport.VARIANT_COUNT + 1, lines.length);
+        String[] header = lines[0].split(",");
+        assertEquals("variant", header[0]);
+        assertEquals("runs", header[1]);
+        assertEquals("p99_9_ms", header[5 + StatisticalAnalysisReport.REPORTED_PERCENTILES.length]);
+        assertEquals("mean_bytes_allocated", header[header.length - 1]);
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            String[] row = lines[variant + 1].split(",");
+            assertEquals(header.length, row.length, lines[variant + 1]);
+            assertEquals(StatisticalAnalysisReport.getVariantName(variant), row[0]);
+            assertEquals("50", row[1]);
+            assertEquals(50, Integer.parseInt(row[2]) + Integer.parseInt(row[3]));
+        }
+
+        long[] histogramCounts = new long[StatisticalAnalysisReport.VARIANT_COUNT];
+        String[] histogramLines = formatter.makeHistogramCsvString().split("\n");
+        assertEquals("variant,bucket_start_ms,bucket_end_ms,count", histogramLines[0]);
+        for (int i = 1; i < histogramLines.length; i++) {
+            String[] row = histogramLines[i].split(",");
+            assertEquals(4, row.length, histogramLines[i]);
+            for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+                if (row[0].equals(StatisticalAnalysisReport.getVariantName(variant))) {
+                    histogramCounts[variant] += Long.parseLong(row[3]);
+                }
+            }
+        }
+        for (int variant = 0; variant < StatisticalAnalysisReport.VARIANT_COUNT; variant++) {
+            assertEquals(50, histogramCounts[variant], StatisticalAnalysisReport.getVariantName(variant));
+        }
+    }
+
+    @Test
+    void lossMapsAreCapped() {
+        StatisticalAnalysisReport report = new StatisticalAnalysisReport(0, 1, 21);
+        StatisticalAnalysisReport.StatisticalAnalysisReportPart part = report.new StatisticalAnalysisReportPart();
+        Map map = MapFactory.GenerateMap(21, Map.defaultSize);
+        for (int run = StatisticalAnalysisReport.MAX_LOSS_MAPS * 2; run > 0; run--) {  // Later runs first, so that the earlier ones replace them
+            AlgorithmOutput output = new AlgorithmOutput();
+            output.map = map;
+            part.add(output, run);
+        }
+        part.finish();
+        assertEquals(StatisticalAnalysisReport.MAX_LOSS_MAPS * 2, part.losses);
+        assertEquals(StatisticalAnalysisReport.MAX_LOSS_MAPS, part.lossMapSeeds.size());
+        assertEquals(1, part.lossMapSeedsByRun.firstKey());
+        assertEquals(StatisticalAnalysisReport.MAX_LOSS_MAPS, part.lossMapSeedsByRun.lastKey());
+    }
+}